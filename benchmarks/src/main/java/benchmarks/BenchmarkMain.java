@@ -0,0 +1,33 @@
+package benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+
+/**
+ * Runs every benchmark with the GC profiler, which adds allocation rate and bytes allocated per operation
+ * (gc.alloc.rate.norm) to each result, and writes the results to jmh-result.json for comparing runs.
+ * <p>
+ * Any arguments are handed to the standard JMH command line instead, for example
+ * {@code java -jar benchmarks/target/benchmarks.jar EngineBenchmarks -p position=endgame -prof gc}
+ */
+public class BenchmarkMain {
+    public static void main(String[] args) throws RunnerException, IOException {
+        if (args.length > 0) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+        Options options = new OptionsBuilder()
+                .include("benchmarks\\..*Benchmarks")
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("jmh-result.json")
+                .build();
+        new Runner(options).run();
+    }
+}
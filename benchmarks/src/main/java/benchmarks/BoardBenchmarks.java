@@ -0,0 +1,60 @@
+package benchmarks;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copying a board and drawing it for the client
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BoardBenchmarks {
+    @Param({Positions.OPENING, Positions.MIDDLEGAME, Positions.ENDGAME})
+    public String position;
+
+    private ChessBoard board;
+    private Collection<ChessMove> highlightedMoves;
+
+    @Setup
+    public void setUp() {
+        ChessGame game = Positions.create(position);
+        board = game.getBoard();
+        ChessPosition firstPiece = board.getPiecePositions(game.getTeamTurn()).iterator().next();
+        highlightedMoves = game.validMoves(firstPiece);
+    }
+
+    @Benchmark
+    public ChessBoard cloneBoard() throws CloneNotSupportedException {
+        return board.clone();
+    }
+
+    @Benchmark
+    public String buildBoardView() {
+        return board.buildBoardView(true, null);
+    }
+
+    @Benchmark
+    public String buildBoardViewHighlighted() {
+        return board.buildBoardView(false, highlightedMoves);
+    }
+}
@@ -0,0 +1,80 @@
+package benchmarks;
+
+import chess.ChessGame;
+import dataaccess.DataAccessException;
+import dataaccess.MemoryDataAccess;
+import model.AuthData;
+import model.GameData;
+import model.UserData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MemoryDataAccess operations, the baseline the SQL implementation is compared against
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class DataAccessBenchmarks {
+    private static final int GAMES = 100;
+
+    private MemoryDataAccess dataAccess;
+    private String authToken;
+    private int gameID;
+    private ChessGame game;
+
+    @Setup
+    public void setUp() throws DataAccessException {
+        dataAccess = new MemoryDataAccess();
+        dataAccess.createUser(new UserData("benchmark", "password", "benchmark@example.com"));
+        authToken = dataAccess.createAuth("benchmark");
+        for (int i = 0; i < GAMES; i++) {
+            gameID = dataAccess.createGame(authToken, "game " + i);
+        }
+        game = Positions.create(Positions.MIDDLEGAME);
+    }
+
+    @Benchmark
+    public AuthData getAuth() throws DataAccessException {
+        return dataAccess.getAuth(authToken);
+    }
+
+    /**
+     * Login followed by logout, so the number of stored tokens stays fixed
+     */
+    @Benchmark
+    public String createAndDeleteAuth() throws DataAccessException {
+        String token = dataAccess.createAuth("benchmark");
+        dataAccess.deleteAuth(token);
+        return token;
+    }
+
+    @Benchmark
+    public GameData getGame() throws DataAccessException {
+        return dataAccess.getGame(gameID);
+    }
+
+    @Benchmark
+    public void updateGame() throws DataAccessException {
+        dataAccess.updateGame(gameID, game);
+    }
+
+    @Benchmark
+    public List<?> getAllGames() throws DataAccessException {
+        return dataAccess.getAllGames(authToken);
+    }
+}
@@ -0,0 +1,49 @@
+package benchmarks;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.Fen;
+import chess.InvalidMoveException;
+
+/**
+ * Positions shared by the benchmarks, selected by name through a JMH {@code @Param}
+ */
+public class Positions {
+    public static final String OPENING = "opening";
+    public static final String MIDDLEGAME = "middlegame";
+    public static final String ENDGAME = "endgame";
+
+    /**
+     * @param name OPENING, MIDDLEGAME or ENDGAME
+     * @return a new game in that position, white to move
+     */
+    public static ChessGame create(String name) {
+        return switch (name) {
+            // Ruy Lopez after 3...a6, reached through makeMove so the game state is what a real game holds
+            case OPENING -> replay(new int[][]{
+                    {2, 5, 4, 5}, {7, 5, 5, 5}, {1, 7, 3, 6}, {8, 2, 6, 3}, {1, 6, 5, 2}, {7, 1, 6, 1}
+            });
+            // Kiwipete: both sides castled in, pins, en passant and many captures available
+            case MIDDLEGAME -> Fen.parse("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+            // Rook and pawns with few pieces left
+            case ENDGAME -> Fen.parse("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1");
+            default -> throw new IllegalArgumentException("Unknown position " + name);
+        };
+    }
+
+    /**
+     * @param moves start row, start column, end row, end column of each move from the starting position
+     */
+    private static ChessGame replay(int[][] moves) {
+        ChessGame game = new ChessGame();
+        try {
+            for (int[] move : moves) {
+                game.makeMove(new ChessMove(ChessPosition.of(move[0], move[1]), ChessPosition.of(move[2], move[3]), null));
+            }
+        } catch (InvalidMoveException e) {
+            throw new IllegalStateException("Benchmark position has an illegal move", e);
+        }
+        return game;
+    }
+}
@@ -0,0 +1,77 @@
+package benchmarks;
+
+import chess.ChessGame;
+import com.google.gson.Gson;
+import model.GameData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import serialization.Serializer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gson round trips of the objects written to the database and sent over the WebSocket, through reflection
+ * and through the streaming adapters in Serializer
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class SerializationBenchmarks {
+    @Param({Positions.OPENING, Positions.MIDDLEGAME, Positions.ENDGAME})
+    public String position;
+
+    @Param({"reflective", "adapters"})
+    public String serializer;
+
+    private Gson gson;
+    private ChessGame game;
+    private GameData gameData;
+    private String gameJson;
+    private String gameDataJson;
+
+    @Setup
+    public void setUp() {
+        gson = serializer.equals("adapters") ? Serializer.GSON : new Gson();
+        game = Positions.create(position);
+        gameData = new GameData(1234, "white", "black", "benchmark", game);
+        gameJson = gson.toJson(game);
+        gameDataJson = gson.toJson(gameData);
+    }
+
+    @Benchmark
+    public String serializeGame() {
+        return gson.toJson(game);
+    }
+
+    @Benchmark
+    public ChessGame deserializeGame() {
+        return gson.fromJson(gameJson, ChessGame.class);
+    }
+
+    @Benchmark
+    public ChessGame roundTripGame() {
+        return gson.fromJson(gson.toJson(game), ChessGame.class);
+    }
+
+    @Benchmark
+    public GameData roundTripGameData() {
+        return gson.fromJson(gson.toJson(gameData), GameData.class);
+    }
+
+    @Benchmark
+    public GameData deserializeGameData() {
+        return gson.fromJson(gameDataJson, GameData.class);
+    }
+}
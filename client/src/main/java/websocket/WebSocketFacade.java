@@ -3,7 +3,7 @@ package websocket;
 import chess.ChessGame;
 import chess.ChessMove;
 import chess.ChessPosition;
-import com.google.gson.Gson;
+import serialization.Serializer;
 import websocket.commands.*;
 import websocket.messages.ErrorMessage;
 import websocket.messages.LoadGameMessage;
@@ -28,12 +28,12 @@ public class WebSocketFacade extends Endpoint {
             this.session.addMessageHandler(new MessageHandler.Whole<String>() {
                 @Override
                 public void onMessage(String message) {
-                    ServerMessage serverMessage = new Gson().fromJson(message, ServerMessage.class);
+                    ServerMessage serverMessage = Serializer.GSON.fromJson(message, ServerMessage.class);
 
                     switch (serverMessage.getServerMessageType()) {
-                        case NOTIFICATION -> notificationHandler.notify(new Gson().fromJson(message, Notification.class));
-                        case LOAD_GAME -> notificationHandler.notify(new Gson().fromJson(message, LoadGameMessage.class));
-                        case ERROR -> notificationHandler.notify(new Gson().fromJson(message, ErrorMessage.class));
+                        case NOTIFICATION -> notificationHandler.notify(Serializer.GSON.fromJson(message, Notification.class));
+                        case LOAD_GAME -> notificationHandler.notify(Serializer.GSON.fromJson(message, LoadGameMessage.class));
+                        case ERROR -> notificationHandler.notify(Serializer.GSON.fromJson(message, ErrorMessage.class));
                     }
                 }
             });
@@ -45,32 +45,32 @@ public class WebSocketFacade extends Endpoint {
 
     public void connect(String authToken, Integer gameID, ChessGame.TeamColor teamColor) throws Exception {
         var command = new ConnectCommand(authToken, gameID, teamColor);
-        this.session.getBasicRemote().sendText(new Gson().toJson(command));
+        this.session.getBasicRemote().sendText(Serializer.GSON.toJson(command));
     }
 
     public void leave(String authToken, Integer gameID) throws Exception {
         var command = new UserGameCommand(UserGameCommand.CommandType.LEAVE, authToken, gameID);
-        this.session.getBasicRemote().sendText(new Gson().toJson(command));
+        this.session.getBasicRemote().sendText(Serializer.GSON.toJson(command));
         this.session.close();
     }
 
     public void move(String authToken, Integer gameID, ChessMove move) throws Exception {
         var command = new MakeMoveCommand(authToken, gameID, move);
-        this.session.getBasicRemote().sendText(new Gson().toJson(command));
+        this.session.getBasicRemote().sendText(Serializer.GSON.toJson(command));
     }
 
     public void highlight(String authToken, Integer gameID, ChessPosition position) throws Exception {
         var command = new HighlightCommand(authToken, gameID, position);
-        this.session.getBasicRemote().sendText(new Gson().toJson(command));
+        this.session.getBasicRemote().sendText(Serializer.GSON.toJson(command));
     }
 
     public void resign(String authToken, Integer gameID) throws Exception {
         var command = new UserGameCommand(UserGameCommand.CommandType.RESIGN, authToken, gameID);
-        this.session.getBasicRemote().sendText(new Gson().toJson(command));
+        this.session.getBasicRemote().sendText(Serializer.GSON.toJson(command));
     }
 
     public void redraw(String authToken, Integer gameID) throws Exception {
         var command = new UserGameCommand(UserGameCommand.CommandType.REDRAW, authToken, gameID);
-        this.session.getBasicRemote().sendText(new Gson().toJson(command));
+        this.session.getBasicRemote().sendText(Serializer.GSON.toJson(command));
     }
 }
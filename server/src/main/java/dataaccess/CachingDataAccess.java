@@ -0,0 +1,398 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import httpmessages.GameResult;
+import model.AuthData;
+import model.GameData;
+import model.UserData;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps games in play in memory as live ChessGame objects, in front of another DataAccess that stores them.
+ * <p>
+ * Reading a cached game never touches the database. Moves and game updates change the cached game at once and are
+ * written behind: they are queued per game and a background thread flushes them every flush lag, coalescing each
+ * game's queued moves into one recordMoves and its updates into one updateGame. A crash therefore loses at most the
+ * last flush lag of moves. close() flushes whatever is still queued. Everything else, users, authTokens, creating
+ * and joining games, is passed straight through. AuthTokens in particular are not cached, so logging out or
+ * deleting a token in the database takes effect at once.
+ * <p>
+ * A write that fails because the database is unreachable is retried with exponential backoff, up to MAX_ATTEMPTS
+ * times. A write the store rejects, a ply already recorded or a game that no longer exists, can never succeed, so
+ * it is dropped at once. Either way a dropped game's queued writes are discarded and counted, and the game is
+ * removed from memory so its next read reloads what the store holds.
+ * <p>
+ * Games idle longer than the idle timeout are dropped from memory once nothing is queued for them.
+ */
+public class CachingDataAccess implements DataAccess, AutoCloseable {
+    private static final Logger LOG = Logger.getLogger(CachingDataAccess.class.getName());
+    private static final int MAX_ATTEMPTS = 8;
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.SECONDS.toNanos(30);
+
+    private final DataAccess delegate;
+    private final long flushLagNanos;
+    private final long idleTimeoutNanos;
+    private final AtomicLong droppedWrites = new AtomicLong();
+    private final ConcurrentHashMap<Integer, CachedGame> games = new ConcurrentHashMap<>();
+    private final Map<Integer, PendingWrites> pending = new LinkedHashMap<>(); // Guarded by itself
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("game-write-behind").daemon().factory());
+
+    public CachingDataAccess(DataAccess delegate) {
+        this(delegate, 200, 600_000);
+    }
+
+    /**
+     * @param delegate          where games are stored
+     * @param flushLagMillis    longest a move waits in memory before it is written
+     * @param idleTimeoutMillis games not used for this long are dropped from memory
+     */
+    public CachingDataAccess(DataAccess delegate, long flushLagMillis, long idleTimeoutMillis) {
+        this.delegate = delegate;
+        this.flushLagNanos = TimeUnit.MILLISECONDS.toNanos(flushLagMillis);
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        flusher.scheduleWithFixedDelay(this::flushAndEvict, flushLagMillis, flushLagMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * A game in memory. data is only replaced inside compute on the game's entry, so a move and a player joining
+     * cannot overwrite each other.
+     */
+    private static class CachedGame {
+        private volatile GameData data;
+        private volatile long lastUsed = System.nanoTime();
+
+        CachedGame(GameData data) {
+            this.data = data;
+        }
+    }
+
+    /**
+     * A game's writes waiting to be flushed: the moves not yet recorded, in order, and a copy of the game after
+     * the latest write
+     */
+    private static class PendingWrites {
+        private final List<ChessMove> moves = new ArrayList<>();
+        private ChessGame game;
+        private boolean snapshot = false; // An updateGame is queued, so the whole game must be written
+        private int failures = 0;
+        private long retryAt; // System.nanoTime() before which a background flush skips these writes
+
+        void append(PendingWrites newer) {
+            moves.addAll(newer.moves);
+            game = newer.game;
+            snapshot |= newer.snapshot;
+        }
+    }
+
+    @Override
+    public synchronized void clear() throws DataAccessException {
+        synchronized (pending) {
+            pending.clear();
+        }
+        games.clear();
+        delegate.clear();
+    }
+
+    @Override
+    public void createUser(UserData user) throws DataAccessException {
+        delegate.createUser(user);
+    }
+
+    @Override
+    public UserData getUser(String username) throws DataAccessException {
+        return delegate.getUser(username);
+    }
+
+    @Override
+    public boolean verifyUser(String username, String providedClearTextPassword) throws DataAccessException {
+        return delegate.verifyUser(username, providedClearTextPassword);
+    }
+
+    @Override
+    public String createAuth(String username) throws DataAccessException {
+        return delegate.createAuth(username);
+    }
+
+    @Override
+    public AuthData getAuth(String authToken) throws DataAccessException {
+        return delegate.getAuth(authToken);
+    }
+
+    @Override
+    public void deleteAuth(String authToken) throws DataAccessException {
+        delegate.deleteAuth(authToken);
+    }
+
+    @Override
+    public int createGame(String authToken, String gameName) throws DataAccessException {
+        return delegate.createGame(authToken, gameName);
+    }
+
+    /**
+     * @return the cached game, loading it on first use. The ChessGame is live and shared: callers that change it
+     * must record the change with recordMove or updateGame.
+     */
+    @Override
+    public GameData getGame(int gameID) throws DataAccessException {
+        CachedGame cached = games.get(gameID);
+        if (cached == null) {
+            GameData loaded = delegate.getGame(gameID);
+            cached = games.computeIfAbsent(gameID, id -> new CachedGame(loaded));
+        }
+        cached.lastUsed = System.nanoTime();
+        return cached.data;
+    }
+
+    @Override
+    public void updateGame(int gameID, ChessGame updatedGame) throws DataAccessException {
+        cacheGame(gameID, updatedGame, 0);
+        PendingWrites writes = new PendingWrites();
+        writes.game = new ChessGame(updatedGame);
+        writes.snapshot = true;
+        enqueue(gameID, writes);
+    }
+
+    @Override
+    public void recordMove(int gameID, ChessMove move, ChessGame updatedGame) throws DataAccessException {
+        recordMoves(gameID, List.of(move), updatedGame);
+    }
+
+    @Override
+    public void recordMoves(int gameID, List<ChessMove> moves, ChessGame updatedGame) throws DataAccessException {
+        cacheGame(gameID, updatedGame, moves.size());
+        PendingWrites writes = new PendingWrites();
+        writes.moves.addAll(moves);
+        writes.game = new ChessGame(updatedGame); // The live game keeps changing, the flush writes this copy
+        enqueue(gameID, writes);
+    }
+
+    /**
+     * Flushes queued writes first, since the history is read from storage
+     */
+    @Override
+    public List<ChessMove> getMoves(int gameID) throws DataAccessException {
+        flush();
+        return delegate.getMoves(gameID);
+    }
+
+    @Override
+    public void removeUserFromGame(String authToken, int gameID) throws DataAccessException {
+        delegate.removeUserFromGame(authToken, gameID);
+        String username = getAuth(authToken).username();
+        games.computeIfPresent(gameID, (id, cached) -> {
+            GameData game = cached.data;
+            cached.data = new GameData(gameID,
+                    username.equals(game.whiteUsername()) ? null : game.whiteUsername(),
+                    username.equals(game.blackUsername()) ? null : game.blackUsername(),
+                    game.gameName(), game.game());
+            return cached;
+        });
+    }
+
+    @Override
+    public List<GameResult> getAllGames(String authToken) throws DataAccessException {
+        return delegate.getAllGames(authToken);
+    }
+
+    @Override
+    public void addUserToGame(String authToken, ChessGame.TeamColor playerColor, int gameID)
+            throws DataAccessException {
+        delegate.addUserToGame(authToken, playerColor, gameID);
+        String username = getAuth(authToken).username();
+        games.computeIfPresent(gameID, (id, cached) -> {
+            GameData game = cached.data;
+            cached.data = (playerColor == ChessGame.TeamColor.WHITE)
+                    ? new GameData(gameID, username, game.blackUsername(), game.gameName(), game.game())
+                    : new GameData(gameID, game.whiteUsername(), username, game.gameName(), game.game());
+            return cached;
+        });
+    }
+
+    /**
+     * Writes every queued move and update now, including those waiting out a backoff
+     */
+    public void flush() {
+        flush(true);
+    }
+
+    /**
+     * @return number of queued moves and game updates discarded because they could not be written
+     */
+    public long getDroppedWrites() {
+        return droppedWrites.get();
+    }
+
+    private synchronized void flush(boolean includeBackedOff) {
+        long now = System.nanoTime();
+        Map<Integer, PendingWrites> batch;
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = new LinkedHashMap<>(pending);
+            pending.clear();
+        }
+        for (var entry : batch.entrySet()) {
+            int gameID = entry.getKey();
+            PendingWrites writes = entry.getValue();
+            if (!includeBackedOff && writes.failures > 0 && writes.retryAt - now > 0) {
+                requeue(gameID, writes);
+                continue;
+            }
+            try {
+                if (!writes.moves.isEmpty()) {
+                    delegate.recordMoves(gameID, writes.moves, writes.game);
+                    writes.moves.clear(); // Recorded, so a retry of the snapshot must not insert them again
+                }
+                if (writes.snapshot) {
+                    delegate.updateGame(gameID, writes.game);
+                }
+            } catch (DataAccessException e) {
+                writes.failures++;
+                if (isPermanent(e) || writes.failures >= MAX_ATTEMPTS) {
+                    drop(gameID, writes, e);
+                } else {
+                    long backoff = Math.min(flushLagNanos << writes.failures, MAX_BACKOFF_NANOS);
+                    writes.retryAt = System.nanoTime() + backoff;
+                    LOG.log(Level.WARNING, "Unable to save game " + gameID + ", retrying in "
+                            + TimeUnit.NANOSECONDS.toMillis(backoff) + " ms", e);
+                    requeue(gameID, writes);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true if the store rejected the write itself, so retrying cannot help
+     */
+    private static boolean isPermanent(DataAccessException e) {
+        return switch (e.getMessage()) {
+            case "already taken", "unauthorized", "bad request" -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * Discards a game's failed writes and any queued since, and forgets the game so it is reloaded from the store
+     */
+    private void drop(int gameID, PendingWrites failed, DataAccessException cause) {
+        synchronized (pending) {
+            PendingWrites newer = pending.remove(gameID);
+            if (newer != null) {
+                failed.append(newer);
+            }
+            games.remove(gameID);
+        }
+        int lost = failed.moves.size() + (failed.snapshot ? 1 : 0);
+        droppedWrites.addAndGet(lost);
+        LOG.log(Level.SEVERE, "Lost " + lost + " unsaved writes for game " + gameID + " after "
+                + failed.failures + " attempts, reloading it from the database", cause);
+    }
+
+    /**
+     * Stops the background flush and writes everything still queued
+     */
+    @Override
+    public void close() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    /**
+     * Makes updatedGame the cached game. A ChessGame other than the cached one is only accepted if it continues
+     * from the cached position. One that does not was held by a caller across a drop and reload, and would queue
+     * moves after plies the store never got.
+     *
+     * @param newMoves moves updatedGame has made since the position it was read in
+     * @throws DataAccessException if updatedGame does not continue from the cached game, so the caller must read
+     *                             the game again
+     */
+    private void cacheGame(int gameID, ChessGame updatedGame, int newMoves) throws DataAccessException {
+        GameData loaded = games.containsKey(gameID) ? null : delegate.getGame(gameID); // Throws if not found
+        boolean[] stale = new boolean[1];
+        games.compute(gameID, (id, entry) -> {
+            if (entry == null) {
+                if (loaded == null) {
+                    stale[0] = true; // Evicted since the check, the caller's copy cannot be trusted either
+                    return null;
+                }
+                entry = new CachedGame(loaded);
+            }
+            GameData game = entry.data;
+            if (game.game() != updatedGame) {
+                if (updatedGame.getPlyCount() - newMoves != game.game().getPlyCount()) {
+                    stale[0] = true;
+                    return entry;
+                }
+                entry.data = new GameData(gameID, game.whiteUsername(), game.blackUsername(), game.gameName(),
+                        updatedGame);
+            }
+            entry.lastUsed = System.nanoTime();
+            return entry;
+        });
+        if (stale[0]) {
+            throw new DataAccessException("game " + gameID + " was reloaded, read it again and retry");
+        }
+    }
+
+    private void enqueue(int gameID, PendingWrites writes) {
+        synchronized (pending) {
+            PendingWrites queued = pending.get(gameID);
+            if (queued == null) {
+                pending.put(gameID, writes);
+            } else {
+                queued.append(writes);
+            }
+        }
+    }
+
+    /**
+     * Puts a failed game's writes back in front of any queued for it since
+     */
+    private void requeue(int gameID, PendingWrites failed) {
+        synchronized (pending) {
+            PendingWrites newer = pending.remove(gameID);
+            if (newer != null) {
+                failed.append(newer);
+            }
+            pending.put(gameID, failed);
+        }
+    }
+
+    private void flushAndEvict() {
+        try {
+            flush(false);
+            long now = System.nanoTime();
+            for (var entry : games.entrySet()) {
+                if (now - entry.getValue().lastUsed > idleTimeoutNanos) {
+                    synchronized (pending) {
+                        if (!pending.containsKey(entry.getKey())) {
+                            games.remove(entry.getKey(), entry.getValue());
+                        }
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            // Keep the schedule running, an exception would cancel it
+            LOG.log(Level.SEVERE, "Background flush failed", e);
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package dataaccess;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded pool of MySQL connections, so a request reuses an open connection instead of paying for a new
+ * TCP connection and login on every statement.
+ * <p>
+ * Connections are handed out wrapped in a proxy whose close() returns them to the pool, so callers keep using
+ * try-with-resources exactly as with DriverManager. Idle connections are reused most recently used first, are
+ * validated before reuse if they sat idle for a while, and are closed once idle too long or older than the
+ * maximum lifetime. Expired connections are swept whenever a connection is borrowed or returned, so the pool
+ * needs no background thread.
+ */
+public class ConnectionPool implements AutoCloseable {
+    private static final long VALIDATION_BYPASS_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final String catalog;
+    private final Settings settings;
+
+    private final Semaphore permits;
+    private final Deque<PooledConnection> idle = new ConcurrentLinkedDeque<>(); // Most recently used first
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicLong borrows = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private volatile boolean closed = false;
+
+    /**
+     * Sizes and timeouts, read from db.properties by DatabaseManager
+     *
+     * @param maxSize                   most connections open at once, borrowers wait when all are in use
+     * @param connectionTimeoutMillis   longest a borrower waits for a connection before failing
+     * @param idleTimeoutMillis         idle connections older than this are closed
+     * @param maxLifetimeMillis         connections older than this are closed when next idle, which keeps
+     *                                  them clear of the server's wait_timeout
+     * @param validationTimeoutSeconds  time allowed for the isValid check before reusing an idle connection
+     */
+    public record Settings(int maxSize, long connectionTimeoutMillis, long idleTimeoutMillis, long maxLifetimeMillis,
+                           int validationTimeoutSeconds) {
+        public static final Settings DEFAULT = new Settings(10, 30_000, 600_000, 1_800_000, 2);
+    }
+
+    /**
+     * Snapshot of the pool's state
+     *
+     * @param active         connections currently borrowed
+     * @param idle           open connections waiting to be borrowed
+     * @param borrows        connections handed out since the pool was created
+     * @param created        physical connections opened since the pool was created
+     * @param totalWaitNanos time borrowers spent waiting for a connection, including opening new ones
+     * @param maxWaitNanos   longest single wait
+     */
+    public record Stats(int active, int idle, long borrows, long created, long totalWaitNanos, long maxWaitNanos) {
+        public double averageWaitMillis() {
+            return (borrows == 0) ? 0 : totalWaitNanos / 1_000_000.0 / borrows;
+        }
+    }
+
+    public ConnectionPool(String url, String user, String password, String catalog, Settings settings) {
+        if (settings.maxSize() < 1) {
+            throw new IllegalArgumentException("Pool size must be at least 1, got " + settings.maxSize());
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.catalog = catalog;
+        this.settings = settings;
+        this.permits = new Semaphore(settings.maxSize(), true);
+    }
+
+    /**
+     * Borrows a connection, waiting up to the connection timeout if all are in use. Close it to return it.
+     *
+     * @return a connection with the catalog set
+     * @throws DataAccessException if the pool is closed, no connection frees up in time, or a new connection
+     *                             cannot be opened
+     */
+    public Connection getConnection() throws DataAccessException {
+        long start = System.nanoTime();
+        if (closed) {
+            throw new DataAccessException("connection pool is closed");
+        }
+        try {
+            if (!permits.tryAcquire(settings.connectionTimeoutMillis(), TimeUnit.MILLISECONDS)) {
+                throw new DataAccessException("timed out waiting for a database connection");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DataAccessException("interrupted waiting for a database connection");
+        }
+
+        try {
+            evictExpired();
+            PooledConnection pooled = takeIdle();
+            if (pooled == null) {
+                pooled = open();
+            }
+            recordWait(System.nanoTime() - start);
+            return pooled.lend();
+        } catch (DataAccessException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * @return current connection counts and wait times
+     */
+    public Stats getStats() {
+        int idleCount = idle.size();
+        return new Stats(Math.max(total.get() - idleCount, 0), idleCount, borrows.get(), created.get(),
+                totalWaitNanos.get(), maxWaitNanos.get());
+    }
+
+    /**
+     * Closes the idle connections and refuses further borrowing. Borrowed connections are closed as they are
+     * returned.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            discard(pooled);
+        }
+    }
+
+    /**
+     * @return the most recently used idle connection that is still alive, or null if there is none
+     */
+    private PooledConnection takeIdle() {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            if (isExpired(pooled, System.nanoTime())) {
+                discard(pooled);
+            } else if (System.nanoTime() - pooled.lastUsed < VALIDATION_BYPASS_NANOS || isValid(pooled)) {
+                return pooled;
+            } else {
+                discard(pooled);
+            }
+        }
+        return null;
+    }
+
+    private PooledConnection open() throws DataAccessException {
+        try {
+            Connection connection = DriverManager.getConnection(url, user, password);
+            connection.setCatalog(catalog);
+            total.incrementAndGet();
+            created.incrementAndGet();
+            return new PooledConnection(connection);
+        } catch (SQLException e) {
+            throw new DataAccessException(e.getMessage());
+        }
+    }
+
+    /**
+     * Called by the proxy's close(). Undoes any transaction left open so the next borrower starts clean.
+     */
+    private void release(PooledConnection pooled) {
+        try {
+            if (closed || isExpired(pooled, System.nanoTime())) {
+                discard(pooled);
+                return;
+            }
+            try {
+                if (!pooled.connection.getAutoCommit()) {
+                    pooled.connection.rollback();
+                    pooled.connection.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                discard(pooled);
+                return;
+            }
+            pooled.lastUsed = System.nanoTime();
+            idle.offerFirst(pooled);
+            evictExpired();
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Closes idle connections past the idle timeout or maximum lifetime. The least recently used are at the end.
+     */
+    private void evictExpired() {
+        long now = System.nanoTime();
+        Iterator<PooledConnection> iterator = idle.descendingIterator();
+        while (iterator.hasNext()) {
+            PooledConnection pooled = iterator.next();
+            if (isExpired(pooled, now) && idle.removeLastOccurrence(pooled)) {
+                discard(pooled);
+            }
+        }
+    }
+
+    private boolean isExpired(PooledConnection pooled, long now) {
+        return now - pooled.createdAt > TimeUnit.MILLISECONDS.toNanos(settings.maxLifetimeMillis())
+                || now - pooled.lastUsed > TimeUnit.MILLISECONDS.toNanos(settings.idleTimeoutMillis());
+    }
+
+    private boolean isValid(PooledConnection pooled) {
+        try {
+            return pooled.connection.isValid(settings.validationTimeoutSeconds());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void discard(PooledConnection pooled) {
+        total.decrementAndGet();
+        try {
+            pooled.connection.close();
+        } catch (SQLException e) {
+            // Already broken, nothing left to release
+        }
+    }
+
+    private void recordWait(long nanos) {
+        borrows.incrementAndGet();
+        totalWaitNanos.addAndGet(nanos);
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * A physical connection and its timestamps. Each loan gets a fresh proxy, so a connection closed by one
+     * borrower cannot be used through a stale reference once another borrower has it.
+     */
+    private class PooledConnection {
+        private final Connection connection;
+        private final long createdAt = System.nanoTime();
+        private volatile long lastUsed = createdAt;
+
+        PooledConnection(Connection connection) {
+            this.connection = connection;
+        }
+
+        Connection lend() {
+            InvocationHandler handler = new InvocationHandler() {
+                private boolean returned = false;
+
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                    switch (method.getName()) {
+                        case "close" -> {
+                            if (!returned) {
+                                returned = true;
+                                release(PooledConnection.this);
+                            }
+                            return null;
+                        }
+                        case "isClosed" -> {
+                            return returned || connection.isClosed();
+                        }
+                        case "equals" -> {
+                            return proxy == args[0];
+                        }
+                        case "hashCode" -> {
+                            return System.identityHashCode(proxy);
+                        }
+                        case "toString" -> {
+                            return "Pooled " + connection;
+                        }
+                        default -> {
+                            if (returned) {
+                                throw new SQLException("connection has been returned to the pool");
+                            }
+                        }
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                }
+            };
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, handler);
+        }
+    }
+}
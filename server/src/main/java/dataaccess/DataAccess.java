@@ -1,6 +1,7 @@
 package dataaccess;
 
 import chess.ChessGame;
+import chess.ChessMove;
 import model.AuthData;
 import model.UserData;
 import model.GameData;
@@ -74,6 +75,34 @@ public interface DataAccess {
 
     void updateGame(int gameID, ChessGame updatedGame) throws DataAccessException;
 
+    /**
+     * Appends a move to a game's move history. Cheaper than updateGame, which rewrites the whole game,
+     * so use this for every move made in play.
+     *
+     * @param gameID      game the move was made in
+     * @param move        the move made
+     * @param updatedGame game after the move
+     * @throws DataAccessException game not found, or another move was already recorded at the same ply
+     */
+    void recordMove(int gameID, ChessMove move, ChessGame updatedGame) throws DataAccessException;
+
+    /**
+     * Appends several consecutive moves of one game in a single write, the same as calling recordMove for each
+     *
+     * @param gameID      game the moves were made in
+     * @param moves       the moves made, oldest first, the last one producing updatedGame
+     * @param updatedGame game after the last move
+     * @throws DataAccessException game not found, or a move was already recorded at one of the plies
+     */
+    void recordMoves(int gameID, List<ChessMove> moves, ChessGame updatedGame) throws DataAccessException;
+
+    /**
+     * @param gameID game to read
+     * @return every move recorded for the game, in the order played
+     * @throws DataAccessException game not found
+     */
+    List<ChessMove> getMoves(int gameID) throws DataAccessException;
+
     void removeUserFromGame(String authToken, int gameID) throws DataAccessException;
 
     /**
@@ -8,6 +8,7 @@ public class DatabaseManager {
     private static final String USER;
     private static final String PASSWORD;
     private static final String CONNECTION_URL;
+    private static final ConnectionPool.Settings POOL_SETTINGS;
 
     /*
      * Load the database information for the db.properties file.
@@ -27,6 +28,19 @@ public class DatabaseManager {
                 var host = props.getProperty("db.host");
                 var port = Integer.parseInt(props.getProperty("db.port"));
                 CONNECTION_URL = String.format("jdbc:mysql://%s:%d", host, port);
+
+                // Pool settings are optional
+                ConnectionPool.Settings defaults = ConnectionPool.Settings.DEFAULT;
+                POOL_SETTINGS = new ConnectionPool.Settings(
+                        Integer.parseInt(props.getProperty("db.pool.maxSize", String.valueOf(defaults.maxSize()))),
+                        Long.parseLong(props.getProperty("db.pool.connectionTimeoutMillis",
+                                String.valueOf(defaults.connectionTimeoutMillis()))),
+                        Long.parseLong(props.getProperty("db.pool.idleTimeoutMillis",
+                                String.valueOf(defaults.idleTimeoutMillis()))),
+                        Long.parseLong(props.getProperty("db.pool.maxLifetimeMillis",
+                                String.valueOf(defaults.maxLifetimeMillis()))),
+                        Integer.parseInt(props.getProperty("db.pool.validationTimeoutSeconds",
+                                String.valueOf(defaults.validationTimeoutSeconds()))));
             }
         } catch (Exception ex) {
             throw new RuntimeException("unable to process db.properties. " + ex.getMessage());
@@ -39,8 +53,8 @@ public class DatabaseManager {
     static void createDatabase() throws DataAccessException {
         try {
             var statement = "CREATE DATABASE IF NOT EXISTS " + DATABASE_NAME;
-            var conn = DriverManager.getConnection(CONNECTION_URL, USER, PASSWORD);
-            try (var preparedStatement = conn.prepareStatement(statement)) {
+            try (var conn = DriverManager.getConnection(CONNECTION_URL, USER, PASSWORD);
+                 var preparedStatement = conn.prepareStatement(statement)) {
                 preparedStatement.executeUpdate();
             }
         } catch (SQLException e) {
@@ -49,9 +63,10 @@ public class DatabaseManager {
     }
 
     /**
-     * Create a connection to the database and sets the catalog based upon the
+     * Borrow a connection to the database from the pool, with the catalog set based upon the
      * properties specified in db.properties. Connections to the database should
-     * be short-lived, and you must close the connection when you are done with it.
+     * be short-lived, and you must close the connection when you are done with it,
+     * which returns it to the pool.
      * The easiest way to do that is with a try-with-resource block.
      * <br/>
      * <code>
@@ -61,12 +76,19 @@ public class DatabaseManager {
      * </code>
      */
     static Connection getConnection() throws DataAccessException {
-        try {
-            var conn = DriverManager.getConnection(CONNECTION_URL, USER, PASSWORD);
-            conn.setCatalog(DATABASE_NAME);
-            return conn;
-        } catch (SQLException e) {
-            throw new DataAccessException(e.getMessage());
-        }
+        return PoolHolder.POOL.getConnection();
+    }
+
+    /**
+     * @return active and idle connection counts and borrower wait times
+     */
+    public static ConnectionPool.Stats getPoolStats() {
+        return PoolHolder.POOL.getStats();
+    }
+
+    // Created on first use, after createDatabase has made sure the catalog exists
+    private static class PoolHolder {
+        private static final ConnectionPool POOL = new ConnectionPool(CONNECTION_URL, USER, PASSWORD, DATABASE_NAME,
+                POOL_SETTINGS);
     }
 }
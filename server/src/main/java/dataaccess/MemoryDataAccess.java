@@ -4,6 +4,7 @@ import java.util.*;
 import java.util.UUID;
 
 import chess.ChessGame;
+import chess.ChessMove;
 import httpmessages.GameResult;
 import model.AuthData;
 import model.GameData;
@@ -13,6 +14,7 @@ public class MemoryDataAccess implements DataAccess {
     private final Map<String, UserData> users = new HashMap<>();
     private final Map<String, AuthData> authTokens = new HashMap<>();
     private final Map<Integer, GameData> games = new HashMap<>();
+    private final Map<Integer, TreeMap<Integer, ChessMove>> moves = new HashMap<>(); // Keyed by ply, like GameMoves
 
 
     @Override
@@ -20,6 +22,7 @@ public class MemoryDataAccess implements DataAccess {
         users.clear();
         authTokens.clear();
         games.clear();
+        moves.clear();
     }
 
     @Override
@@ -103,6 +106,34 @@ public class MemoryDataAccess implements DataAccess {
         games.put(gameID, updatedGameData);
     }
 
+    @Override
+    public void recordMove(int gameID, ChessMove move, ChessGame updatedGame) throws DataAccessException {
+        recordMoves(gameID, List.of(move), updatedGame);
+    }
+
+    @Override
+    public void recordMoves(int gameID, List<ChessMove> newMoves, ChessGame updatedGame) throws DataAccessException {
+        getGame(gameID); // Throws exception if not found
+        TreeMap<Integer, ChessMove> gameMoves = moves.computeIfAbsent(gameID, id -> new TreeMap<>());
+        int firstPly = updatedGame.getPlyCount() - newMoves.size() + 1;
+        // Check every ply before changing anything, so a rejected batch records nothing, as in SqlDataAccess
+        for (int i = 0; i < newMoves.size(); i++) {
+            if (gameMoves.containsKey(firstPly + i)) {
+                throw new DataAccessException("already taken");
+            }
+        }
+        updateGame(gameID, updatedGame);
+        for (int i = 0; i < newMoves.size(); i++) {
+            gameMoves.put(firstPly + i, newMoves.get(i));
+        }
+    }
+
+    @Override
+    public List<ChessMove> getMoves(int gameID) throws DataAccessException {
+        getGame(gameID); // Throws exception if not found
+        return new ArrayList<>(moves.getOrDefault(gameID, new TreeMap<>()).values());
+    }
+
     @Override
     public List<GameResult> getAllGames(String authToken) throws DataAccessException {
         getAuth(authToken);
@@ -1,8 +1,11 @@
 package dataaccess;
 
+import chess.Bitboard;
 import chess.ChessGame;
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import chess.ChessMove;
+import chess.GameCodec;
+import chess.InvalidMoveException;
+import chess.Move;
 import httpmessages.GameResult;
 import model.*;
 import org.mindrot.jbcrypt.BCrypt;
@@ -10,7 +13,9 @@ import org.mindrot.jbcrypt.BCrypt;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 import java.util.UUID;
@@ -18,7 +23,6 @@ import java.util.UUID;
 import static java.sql.Types.NULL;
 
 public class SqlDataAccess implements DataAccess {
-    private final Gson gson = new GsonBuilder().serializeNulls().create();
     private final String[] createStatements = {
             """
             CREATE TABLE IF NOT EXISTS UserData (
@@ -48,8 +52,23 @@ public class SqlDataAccess implements DataAccess {
             FOREIGN KEY (`blackUsername`) REFERENCES UserData(`username`) ON DELETE SET NULL,
             INDEX(gameName)
             ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci
+            """,
+            // Moves made since the game was created, packed as in chess.Move. GameData.game holds a snapshot
+            // taken every SNAPSHOT_INTERVAL plies, and the moves after it are replayed on load.
+            """
+            CREATE TABLE IF NOT EXISTS GameMoves (
+            `gameID` INT NOT NULL,
+            `ply` INT NOT NULL,
+            `move` SMALLINT NOT NULL,
+            PRIMARY KEY (`gameID`, `ply`),
+            FOREIGN KEY (`gameID`) REFERENCES GameData(`gameID`) ON DELETE CASCADE
+            ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_0900_ai_ci
             """
     };
+    private static final int SNAPSHOT_INTERVAL = 16;
+    // MySQL error codes for a duplicate unique key and a foreign key with no matching row
+    private static final int DUPLICATE_KEY = 1062;
+    private static final int NO_REFERENCED_ROW = 1452;
 
     public SqlDataAccess() {
         try {
@@ -62,25 +81,18 @@ public class SqlDataAccess implements DataAccess {
     @Override
     public void clear() throws DataAccessException {
         executeUpdate("DELETE FROM AuthData");
+        executeUpdate("DELETE FROM GameMoves");
         executeUpdate("DELETE FROM GameData");
         executeUpdate("DELETE FROM UserData");
     }
 
     @Override
     public void createUser(UserData user) throws DataAccessException {
-        try {
-            getUser(user.username());
-            throw new DataAccessException("already taken");
-        } catch (DataAccessException e) {
-            if (e.getMessage().equals("unauthorized")) {
-                String statement = "INSERT INTO UserData (username, password, email) VALUES (?, ?, ?)";
-                // Hash password
-                String hashedPassword = BCrypt.hashpw(user.password(), BCrypt.gensalt());
-                executeUpdate(statement, user.username(), hashedPassword, user.email());
-            } else {
-                throw e;
-            }
-        }
+        // The primary key rejects an existing username as "already taken"
+        String statement = "INSERT INTO UserData (username, password, email) VALUES (?, ?, ?)";
+        // Hash password
+        String hashedPassword = BCrypt.hashpw(user.password(), BCrypt.gensalt());
+        executeUpdate(statement, user.username(), hashedPassword, user.email());
     }
 
     @Override
@@ -99,8 +111,7 @@ public class SqlDataAccess implements DataAccess {
 
     @Override
     public String createAuth(String username) throws DataAccessException {
-        getUser(username); // Throws unauthorized if user does not exist
-
+        // The foreign key rejects a username that does not exist as "unauthorized"
         String authToken = UUID.randomUUID().toString();
         String statement = "INSERT INTO AuthData (authToken, username) VALUES (?, ?)";
         executeUpdate(statement, authToken, username);
@@ -116,38 +127,54 @@ public class SqlDataAccess implements DataAccess {
 
     @Override
     public void deleteAuth(String authToken) throws DataAccessException {
-        getAuth(authToken); // Throws error if unauthorized
         String statement = "DELETE FROM AuthData WHERE authToken=?";
-        executeUpdate(statement, authToken);
+        if (executeUpdate(statement, authToken) == 0) {
+            throw new DataAccessException("unauthorized");
+        }
     }
 
     @Override
     public int createGame(String authToken, String gameName) throws DataAccessException {
-        getAuth(authToken); // Throws unauthorized
+        // Inserts nothing unless the authToken exists, and the primary key rejects a gameID already in use
+        String statement = """
+                INSERT INTO GameData (gameID, whiteUsername, blackUsername, gameName, game)
+                SELECT ?, NULL, NULL, ?, ? FROM AuthData WHERE authToken=?
+                """;
+        ChessGame game = new ChessGame();
         Random random = new Random();
-        int gameID = 0;
-        boolean uniqueGameID = false;
-        while (!uniqueGameID) {
-            gameID = 1000 + random.nextInt(9000);
+        while (true) {
+            int gameID = 1000 + random.nextInt(9000);
             try {
-                getGame(gameID);
+                if (executeUpdate(statement, gameID, gameName, game, authToken) == 0) {
+                    throw new DataAccessException("unauthorized");
+                }
+                return gameID;
             } catch (DataAccessException e) {
-                if (e.getMessage().contains("unauthorized")) {
-                    uniqueGameID = true;
+                if (!e.getMessage().equals("already taken")) {
+                    throw e;
                 }
             }
         }
-        ChessGame game = new ChessGame();
-        String statement = "INSERT INTO GameData (gameID, whiteUsername, blackUsername, gameName, game) VALUES (?, ?, ?, ?, ?)";
-        executeUpdate(statement, gameID, null, null, gameName, game);
-
-        return gameID;
     }
 
     @Override
     public GameData getGame(int gameID) throws DataAccessException {
         List<String> res = executeQuery("SELECT * FROM GameData WHERE gameID=?", gameID).getFirst();
-        ChessGame game = gson.fromJson(res.get(4), ChessGame.class);
+        ChessGame game = GameCodec.decodeFromString(res.get(4));
+
+        // Replay the moves made since the snapshot
+        for (List<String> row : queryMoves(gameID, game.getPlyCount())) {
+            int ply = Integer.parseInt(row.get(0));
+            if (ply != game.getPlyCount() + 1) {
+                throw new DataAccessException("move history of game " + gameID + " has ply " + ply + " where ply "
+                        + (game.getPlyCount() + 1) + " was expected");
+            }
+            try {
+                game.makeMove(unpackMove(row.get(1)));
+            } catch (InvalidMoveException e) {
+                throw new DataAccessException("unable to replay move " + row.get(0) + " of game " + gameID);
+            }
+        }
         return new GameData(gameID, res.get(1), res.get(2), res.get(3), game);
     }
 
@@ -158,66 +185,188 @@ public class SqlDataAccess implements DataAccess {
     }
 
     @Override
-    public void removeUserFromGame(String authToken, int gameID) throws DataAccessException {
-        AuthData authData = getAuth(authToken); // validate token and get username
-        GameData game = getGame(gameID); // get the current game state
-
-        String username = authData.username();
-        String statement;
-
-        // Check which side the user occupies and remove them
-        if (username.equals(game.whiteUsername())) {
-            statement = "UPDATE GameData SET whiteUsername=? WHERE gameID=?";
-            executeUpdate(statement, null, gameID);
-        } else if (username.equals(game.blackUsername())) {
-            statement = "UPDATE GameData SET blackUsername=? WHERE gameID=?";
-            executeUpdate(statement, null, gameID);
+    public void recordMove(int gameID, ChessMove move, ChessGame updatedGame) throws DataAccessException {
+        recordMoves(gameID, List.of(move), updatedGame);
+    }
+
+    @Override
+    public void recordMoves(int gameID, List<ChessMove> moves, ChessGame updatedGame) throws DataAccessException {
+        if (moves.isEmpty()) {
+            return;
+        }
+        int lastPly = updatedGame.getPlyCount();
+        int firstPly = lastPly - moves.size() + 1;
+        String statement = "INSERT INTO GameMoves (gameID, ply, move) VALUES "
+                + String.join(", ", Collections.nCopies(moves.size(), "(?, ?, ?)"));
+        Object[] params = new Object[moves.size() * 3];
+        for (int i = 0; i < moves.size(); i++) {
+            params[3 * i] = gameID;
+            params[3 * i + 1] = firstPly + i;
+            params[3 * i + 2] = packMove(moves.get(i));
+        }
+        Update insert = new Update(statement, params);
+        if (lastPly / SNAPSHOT_INTERVAL > (firstPly - 1) / SNAPSHOT_INTERVAL) {
+            // The moves crossed a snapshot ply. Inserted and snapshotted together, so a failed snapshot cannot
+            // leave the moves saved behind an error, and retrying the call does not hit duplicate plies.
+            executeTransaction(insert, new Update("UPDATE GameData SET game=? WHERE gameID=?", updatedGame, gameID));
         } else {
+            executeUpdate(statement, params); // A single multi-row INSERT, which InnoDB applies all or nothing
+        }
+    }
+
+    @Override
+    public List<ChessMove> getMoves(int gameID) throws DataAccessException {
+        requireGame(gameID); // Throws unauthorized if the game does not exist
+        List<ChessMove> moves = new ArrayList<>();
+        for (List<String> row : queryMoves(gameID, 0)) {
+            moves.add(unpackMove(row.get(1)));
+        }
+        return moves;
+    }
+
+    /**
+     * @return ply and packed move of each move after the given ply, in order, or an empty list if there are none
+     */
+    private List<List<String>> queryMoves(int gameID, int afterPly) throws DataAccessException {
+        try {
+            return executeQuery("SELECT ply, move FROM GameMoves WHERE gameID=? AND ply>? ORDER BY ply",
+                    gameID, afterPly);
+        } catch (DataAccessException e) {
+            if (e.getMessage().contains("unauthorized")) {
+                return List.of();
+            }
+            throw e;
+        }
+    }
+
+    private static int packMove(ChessMove move) {
+        return Move.encode(Bitboard.square(move.getStartPosition()), Bitboard.square(move.getEndPosition()),
+                move.getPromotionPiece(), 0);
+    }
+
+    private static ChessMove unpackMove(String packed) {
+        return Move.toChessMove(Integer.parseInt(packed));
+    }
+
+    @Override
+    public void removeUserFromGame(String authToken, int gameID) throws DataAccessException {
+        // Clears white if the user plays white, otherwise black. A single-table UPDATE applies its assignments left
+        // to right, and neither reads a column assigned before it: black reads only the original whiteUsername and
+        // blackUsername, white only its own. The user is looked up in a subquery since the table is not joined.
+        String statement = """
+                UPDATE GameData
+                SET blackUsername=IF(whiteUsername=(SELECT username FROM AuthData WHERE authToken=?),
+                                     blackUsername, NULL),
+                    whiteUsername=IF(whiteUsername=(SELECT username FROM AuthData WHERE authToken=?),
+                                     NULL, whiteUsername)
+                WHERE gameID=?
+                AND (SELECT username FROM AuthData WHERE authToken=?) IN (whiteUsername, blackUsername)
+                """;
+        if (executeUpdate(statement, authToken, authToken, gameID, authToken) == 0) {
+            // Only on failure, work out why
+            getAuth(authToken);
+            requireGame(gameID);
             throw new DataAccessException("user is not in the game");
         }
     }
 
     @Override
     public List<GameResult> getAllGames(String authToken) throws DataAccessException {
-        getAuth(authToken);
+        // No rows if the authToken does not exist, one row of NULLs if there are no games
+        String statement = """
+                SELECT GameData.gameID, GameData.whiteUsername, GameData.blackUsername, GameData.gameName
+                FROM AuthData LEFT JOIN GameData ON TRUE WHERE AuthData.authToken=?
+                """;
         List<GameResult> gameResults = new ArrayList<>();
-        try {
-            List<List<String>> res = executeQuery("SELECT * FROM GameData");
-            for (List<String> row : res) {
+        for (List<String> row : executeQuery(statement, authToken)) {
+            if (row.get(0) != null) {
                 gameResults.add(new GameResult(Integer.parseInt(row.get(0)), row.get(1), row.get(2), row.get(3)));
             }
-            return gameResults;
-        } catch (DataAccessException e) {
-            if (e.getMessage().contains("unauthorized")) {
-                return gameResults;
-            }
-            throw new DataAccessException(e.getMessage());
         }
+        return gameResults;
     }
 
     @Override
     public void addUserToGame(String authToken, ChessGame.TeamColor playerColor, int gameID) throws DataAccessException {
-        AuthData authData = getAuth(authToken);
-        GameData game = getGame(gameID);
-        String statement = "UPDATE GameData SET whiteUsername=?, blackUsername=?, game=? WHERE gameID=?";
-        if (playerColor == ChessGame.TeamColor.WHITE && game.whiteUsername() == null) {
-            executeUpdate(statement, authData.username(), game.blackUsername(), game.game(), gameID);
-        } else if (playerColor == ChessGame.TeamColor.BLACK && game.blackUsername() == null) {
-            executeUpdate(statement, game.whiteUsername(), authData.username(), game.game(), gameID);
-        } else {
+        String column = (playerColor == ChessGame.TeamColor.WHITE) ? "whiteUsername" : "blackUsername";
+        String statement = String.format("""
+                UPDATE GameData JOIN AuthData ON AuthData.authToken=?
+                SET GameData.%1$s=AuthData.username
+                WHERE GameData.gameID=? AND GameData.%1$s IS NULL
+                """, column);
+        if (executeUpdate(statement, authToken, gameID) == 0) {
+            // Only on failure, work out why
+            getAuth(authToken);
+            requireGame(gameID);
             throw new DataAccessException("already taken");
         }
     }
 
-    private void executeUpdate(String statement, Object... params) throws DataAccessException {
+    /**
+     * @throws DataAccessException unauthorized if the game does not exist, as getGame reports it
+     */
+    private void requireGame(int gameID) throws DataAccessException {
+        executeQuery("SELECT gameID FROM GameData WHERE gameID=?", gameID);
+    }
+
+    /**
+     * Execute provided update statement
+     *
+     * @param statement string to become prepared statement
+     * @return number of rows changed
+     * @throws DataAccessException already taken for a duplicate key, unauthorized for a reference to a user or
+     *                             game that does not exist
+     */
+    private int executeUpdate(String statement, Object... params) throws DataAccessException {
         try (var conn = DatabaseManager.getConnection()) {
             try (var ps = conn.prepareStatement(statement)) {
                 prepareStatement(ps, params);
-                ps.executeUpdate();
+                return ps.executeUpdate();
             }
         } catch (SQLException e) {
-            throw new DataAccessException("unable to update database: " + e.getMessage());
+            throw updateFailure(e);
+        }
+    }
+
+    /**
+     * An update statement and its parameters, for executeTransaction
+     */
+    private record Update(String statement, Object... params) {
+    }
+
+    /**
+     * Execute update statements in one transaction on one connection, so either all take effect or none do
+     *
+     * @throws DataAccessException as executeUpdate, after rolling back
+     */
+    private void executeTransaction(Update... updates) throws DataAccessException {
+        try (var conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false); // Returning the connection to the pool rolls back anything uncommitted
+            for (Update update : updates) {
+                try (var ps = conn.prepareStatement(update.statement())) {
+                    prepareStatement(ps, update.params());
+                    ps.executeUpdate();
+                }
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            throw updateFailure(e);
+        }
+    }
+
+    /**
+     * @return already taken for a duplicate key, unauthorized for a missing referenced row, otherwise a general
+     * update failure
+     */
+    private static DataAccessException updateFailure(SQLException e) {
+        if (e instanceof SQLIntegrityConstraintViolationException) {
+            if (e.getErrorCode() == DUPLICATE_KEY) {
+                return new DataAccessException("already taken");
+            } else if (e.getErrorCode() == NO_REFERENCED_ROW) {
+                return new DataAccessException("unauthorized");
+            }
         }
+        return new DataAccessException("unable to update database: " + e.getMessage());
     }
 
     /**
@@ -232,7 +381,7 @@ public class SqlDataAccess implements DataAccess {
             switch (param) {
                 case String p -> ps.setString(i + 1, p);
                 case Integer p -> ps.setInt(i + 1, p);
-                case ChessGame p -> ps.setString(i + 1, gson.toJson(p));
+                case ChessGame p -> ps.setString(i + 1, GameCodec.encodeToString(p));
                 case null -> ps.setNull(i + 1, NULL);
                 default -> {
                 }
@@ -2,11 +2,11 @@ package server;
 
 import chess.ChessGame;
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import dataaccess.DataAccessException;
 import httpmessages.GameRequest;
 import dataaccess.DataAccess;
 import model.UserData;
+import serialization.Serializer;
 import service.GameService;
 import service.UserService;
 import spark.Request;
@@ -18,7 +18,7 @@ import java.util.Map;
 public class RouteManager {
     private final GameService gameService;
     private final UserService userService;
-    private final Gson gson = new GsonBuilder().serializeNulls().create();
+    private final Gson gson = Serializer.builder().serializeNulls().create();
 
     public RouteManager(DataAccess dataAccess) {
         this.gameService = new GameService(dataAccess);
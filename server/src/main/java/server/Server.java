@@ -1,6 +1,6 @@
 package server;
 
-import dataaccess.DataAccess;
+import dataaccess.CachingDataAccess;
 import dataaccess.SqlDataAccess;
 import spark.*;
 import websocket.WebSocketHandler;
@@ -8,11 +8,12 @@ import websocket.WebSocketHandler;
 public class Server {
     private final WebSocketHandler webSocketHandler;
     private final RouteManager routeManager;
+    private final CachingDataAccess dataAccess;
 
 
     public Server() {
-        // Quickly switch between MemoryDataAccess and SqlDataAccess
-        DataAccess dataAccess = new SqlDataAccess();
+        // Quickly switch between MemoryDataAccess and SqlDataAccess, games in play are kept in memory either way
+        dataAccess = new CachingDataAccess(new SqlDataAccess());
         webSocketHandler = new WebSocketHandler(dataAccess);
         routeManager = new RouteManager(dataAccess);
     }
@@ -43,6 +44,8 @@ public class Server {
     public void stop() {
         Spark.stop();
         Spark.awaitStop();
+        webSocketHandler.close();
+        dataAccess.close(); // After the last command, so its moves are flushed
     }
 }
 
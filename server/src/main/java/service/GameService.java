@@ -1,6 +1,7 @@
 package service;
 
 import chess.ChessGame;
+import chess.ChessMove;
 import dataaccess.DataAccess;
 import dataaccess.DataAccessException;
 import model.GameData;
@@ -48,4 +49,12 @@ public class GameService {
     public void updateGame(int gameID, ChessGame updatedGame) throws DataAccessException {
         dataAccess.updateGame(gameID, updatedGame);
     }
+
+    public void recordMove(int gameID, ChessMove move, ChessGame updatedGame) throws DataAccessException {
+        dataAccess.recordMove(gameID, move, updatedGame);
+    }
+
+    public List<ChessMove> getMoves(int gameID) throws DataAccessException {
+        return dataAccess.getMoves(gameID);
+    }
 }
@@ -3,9 +3,24 @@ package websocket;
 import org.eclipse.jetty.websocket.api.Session;
 import websocket.messages.ServerMessage;
 
-public record Connection(Session session, String authToken, Integer gameID, String userName) {
+/**
+ * A client's WebSocket session in one game, with its queue of messages waiting to be sent
+ */
+public record Connection(Session session, String authToken, Integer gameID, String userName,
+                         OutboundQueue outbound) {
 
-    public void send(ServerMessage msg) throws Exception {
-        session.getRemote().sendString(msg.toString());
+    /**
+     * Queues a message, returning without waiting for the client
+     */
+    public void send(ServerMessage msg) {
+        send(msg.toString(), msg.getServerMessageType() == ServerMessage.ServerMessageType.LOAD_GAME);
+    }
+
+    /**
+     * @param json       message already serialized, for sending the same text to many connections
+     * @param boardState true for a LOAD_GAME message
+     */
+    public void send(String json, boolean boardState) {
+        outbound.send(json, boardState);
     }
 }
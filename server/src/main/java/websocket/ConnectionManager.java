@@ -1,6 +1,6 @@
 package websocket;
 
-import java.util.ArrayList;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.jetty.websocket.api.Session;
@@ -8,59 +8,102 @@ import websocket.commands.ConnectCommand;
 import websocket.messages.LoadGameMessage;
 import websocket.messages.ServerMessage;
 
+/**
+ * Open WebSocket connections, indexed by game and then by authToken, so a broadcast only visits the
+ * connections of its own game. Per-game maps are created and dropped atomically with compute, so connecting and
+ * leaving never lock more than the one game.
+ */
 public class ConnectionManager {
-    public final ConcurrentHashMap<ConnectionKey, Connection> connections = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Map<String, Connection>> games = new ConcurrentHashMap<>();
+    private final int queueCapacity;
+    private final OutboundQueue.Policy slowConsumerPolicy;
 
-    public synchronized void add(Session session, ConnectCommand cmd, String userName) {
-        var connection = new Connection(session, cmd.getAuthToken(), cmd.getGameID(), userName);
-        ConnectionKey key = new ConnectionKey(cmd.getAuthToken(), cmd.getGameID());
-        connections.put(key, connection);
+    public ConnectionManager() {
+        this(64, OutboundQueue.Policy.DROP_STALE_BOARDS);
+    }
+
+    /**
+     * @param queueCapacity      most messages waiting to be sent to one connection
+     * @param slowConsumerPolicy what to do when a connection's queue is full
+     */
+    public ConnectionManager(int queueCapacity, OutboundQueue.Policy slowConsumerPolicy) {
+        this.queueCapacity = queueCapacity;
+        this.slowConsumerPolicy = slowConsumerPolicy;
+    }
+
+    public void add(Session session, ConnectCommand cmd, String userName) {
+        var connection = new Connection(session, cmd.getAuthToken(), cmd.getGameID(), userName,
+                new OutboundQueue(session, queueCapacity, slowConsumerPolicy));
+        games.compute(cmd.getGameID(), (gameID, gameConnections) -> {
+            if (gameConnections == null) {
+                gameConnections = new ConcurrentHashMap<>();
+            }
+            gameConnections.put(connection.authToken(), connection);
+            return gameConnections;
+        });
     }
 
     public void remove(String authToken, Integer gameID) {
-        ConnectionKey key = new ConnectionKey(authToken, gameID);
-        connections.remove(key);
+        games.computeIfPresent(gameID, (id, gameConnections) -> {
+            gameConnections.remove(authToken);
+            return gameConnections.isEmpty() ? null : gameConnections; // Returning null drops the game
+        });
     }
 
-    public void broadcast(String excludeAuthToken, Integer gameID, ServerMessage message) throws Exception {
-        var removeList = new ArrayList<Connection>();
-        for (var c : connections.values()) {
-            if (c.session().isOpen()) {
-                if (!c.authToken().equals(excludeAuthToken) &&
-                        message.getServerMessageType().equals(ServerMessage.ServerMessageType.NOTIFICATION)
-                        && c.gameID().equals(gameID)) {
-                    c.send(message);
-                } else if (c.authToken().equals(excludeAuthToken) &&
-                        message.getServerMessageType().equals(ServerMessage.ServerMessageType.LOAD_GAME)
-                        && c.gameID().equals(gameID)) {
-                    c.send(message);
+    /**
+     * Notifications go to everyone in the game except excludeAuthToken, while a game load goes only to
+     * excludeAuthToken, the connection that asked for it. Messages are queued per connection, so this returns
+     * without waiting on any client.
+     */
+    public void broadcast(String excludeAuthToken, Integer gameID, ServerMessage message) {
+        boolean notification = message.getServerMessageType() == ServerMessage.ServerMessageType.NOTIFICATION;
+        boolean loadGame = message.getServerMessageType() == ServerMessage.ServerMessageType.LOAD_GAME;
+        String json = null; // Serialized once, on the first send
+        for (var c : connections(gameID).values()) {
+            if (!c.session().isOpen()) {
+                remove(c.authToken(), gameID); // Clean up any connections that were left open
+            } else if ((notification && !c.authToken().equals(excludeAuthToken))
+                    || (loadGame && c.authToken().equals(excludeAuthToken))) {
+                if (json == null) {
+                    json = message.toString();
                 }
-            } else {
-                removeList.add(c);
+                c.send(json, loadGame);
             }
         }
-
-        // Clean up any connections that were left open
-        for (var c : removeList) {
-            connections.remove(new ConnectionKey(c.authToken(), c.gameID()));
-        }
     }
 
-    public void reloadBoard(LoadGameMessage loadGame, boolean once, String userName) throws Exception {
-        if (once) {
-            for (var c : connections.values()) {
-                if (userName.equals(c.userName())) {
-                    LoadGameMessage newLoadGame = new LoadGameMessage(loadGame.getGame(), userName);
-                    c.send(newLoadGame);
+    /**
+     * Sends the game to its connections, each message carrying the recipient's own username. The game is
+     * serialized once for all of them.
+     */
+    public void reloadBoard(LoadGameMessage loadGame, boolean once, String userName) {
+        LoadGameMessage.Encoded encoded = null;
+        for (var c : connections(loadGame.getGame().gameID()).values()) {
+            boolean recipient = once ? userName.equals(c.userName()) : c.session().isOpen();
+            if (recipient) {
+                if (encoded == null) {
+                    encoded = LoadGameMessage.encode(loadGame.getGame());
                 }
+                c.send(encoded.forUser(c.userName()), true);
             }
+        }
+    }
+
+    /**
+     * Sends a message to one session. A session connected to the game gets it through its queue, so it keeps its
+     * place behind messages already queued and counts against the queue's bound. Only a session that has not
+     * connected yet is sent to directly.
+     */
+    public void reply(Session session, String authToken, Integer gameID, ServerMessage message) {
+        Connection connection = (authToken == null || gameID == null) ? null : connections(gameID).get(authToken);
+        if (connection != null && connection.session() == session) {
+            connection.send(message);
         } else {
-            for (var c : connections.values()) {
-                if (c.session().isOpen() && c.gameID().equals(loadGame.getGame().gameID())) {
-                    LoadGameMessage newLoadGame = new LoadGameMessage(loadGame.getGame(), c.userName());
-                    c.send(newLoadGame);
-                }
-            }
+            session.getRemote().sendStringByFuture(message.toString()); // Asynchronous, like the queued sends
         }
     }
+
+    private Map<String, Connection> connections(Integer gameID) {
+        return games.getOrDefault(gameID, Map.of());
+    }
 }
@@ -0,0 +1,73 @@
+package websocket;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs each game's commands one at a time, in the order they arrived, while different games run in parallel.
+ * A game with commands waiting has a mailbox and one virtual thread draining it. A mailbox exists exactly as
+ * long as its game has work, and is created and removed with compute on the game's entry, so submitting never
+ * locks more than that one game.
+ */
+public class GameCommandExecutor implements AutoCloseable {
+    private static final Logger LOG = Logger.getLogger(GameCommandExecutor.class.getName());
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ConcurrentHashMap<Integer, ArrayDeque<Runnable>> mailboxes = new ConcurrentHashMap<>();
+
+    /**
+     * Queues a command behind the game's earlier commands and returns at once
+     *
+     * @param gameID  game the command belongs to
+     * @param command command to run, which should handle its own errors
+     */
+    public void submit(Integer gameID, Runnable command) {
+        boolean[] started = new boolean[1];
+        mailboxes.compute(gameID, (id, mailbox) -> {
+            if (mailbox == null) {
+                mailbox = new ArrayDeque<>();
+                started[0] = true;
+            }
+            mailbox.add(command);
+            return mailbox;
+        });
+        if (started[0]) {
+            executor.execute(() -> drain(gameID));
+        }
+    }
+
+    /**
+     * Stops taking work and waits for queued commands to finish
+     */
+    @Override
+    public void close() {
+        executor.close();
+    }
+
+    private void drain(Integer gameID) {
+        Runnable command;
+        while ((command = poll(gameID)) != null) {
+            try {
+                command.run();
+            } catch (RuntimeException e) {
+                LOG.log(Level.WARNING, "Command for game " + gameID + " failed", e);
+            }
+        }
+    }
+
+    /**
+     * @return the game's next command, or null after removing its empty mailbox, which ends this drain
+     */
+    private Runnable poll(Integer gameID) {
+        Runnable[] next = new Runnable[1];
+        mailboxes.computeIfPresent(gameID, (id, mailbox) -> {
+            next[0] = mailbox.poll();
+            return (next[0] == null) ? null : mailbox;
+        });
+        return next[0];
+    }
+}
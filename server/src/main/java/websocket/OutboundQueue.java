@@ -0,0 +1,146 @@
+package websocket;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.StatusCode;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+
+/**
+ * Messages waiting to go out on one connection. Sending never blocks the caller: messages are queued and written
+ * one at a time with Jetty's asynchronous sendString, each completion starting the next write. A client that
+ * reads slowly therefore only backs up its own queue, and once that is full the backpressure policy decides what
+ * gives way.
+ */
+public class OutboundQueue implements WriteCallback {
+    /**
+     * What to do when a message arrives for a full queue
+     */
+    public enum Policy {
+        /**
+         * Drop game states still waiting to be sent except the newest, which supersedes them. Disconnect if
+         * there are none to drop.
+         */
+        DROP_STALE_BOARDS,
+        /**
+         * Disconnect the client, who can reconnect and be sent the current game
+         */
+        DISCONNECT
+    }
+
+    private record Outbound(String json, boolean boardState) {
+    }
+
+    private final Session session;
+    private final int capacity;
+    private final Policy policy;
+    private final ArrayDeque<Outbound> queue = new ArrayDeque<>();
+    private boolean writing = false; // True while a write is in flight, guarded by this
+    private boolean closed = false;
+
+    /**
+     * @param session  session to write to
+     * @param capacity most messages waiting at once, not counting the one being written
+     * @param policy   what to do when the queue is full
+     */
+    public OutboundQueue(Session session, int capacity, Policy policy) {
+        this.session = session;
+        this.capacity = capacity;
+        this.policy = policy;
+    }
+
+    /**
+     * Queues a message and returns at once
+     *
+     * @param json       serialized message
+     * @param boardState true for a LOAD_GAME message, which a later one makes redundant
+     */
+    public void send(String json, boolean boardState) {
+        Outbound next;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            if (queue.size() >= capacity && !makeRoom(boardState)) {
+                closed = true;
+                queue.clear();
+                next = null;
+            } else {
+                queue.add(new Outbound(json, boardState));
+                if (writing) {
+                    return; // The write in flight starts this one when it completes
+                }
+                writing = true;
+                next = queue.poll();
+            }
+        }
+        if (next == null) {
+            session.close(StatusCode.POLICY_VIOLATION, "too many messages waiting, reconnect to resume");
+        } else {
+            write(next);
+        }
+    }
+
+    /**
+     * @return number of messages waiting to be written
+     */
+    public synchronized int size() {
+        return queue.size();
+    }
+
+    @Override
+    public void writeSuccess() {
+        Outbound next;
+        synchronized (this) {
+            next = queue.poll();
+            if (next == null) {
+                writing = false;
+                return;
+            }
+        }
+        write(next);
+    }
+
+    @Override
+    public void writeFailed(Throwable x) {
+        synchronized (this) {
+            closed = true;
+            queue.clear();
+            writing = false;
+        }
+        session.close(StatusCode.SERVER_ERROR, "write failed");
+    }
+
+    private void write(Outbound message) {
+        try {
+            session.getRemote().sendString(message.json(), this);
+        } catch (RuntimeException e) {
+            writeFailed(e); // The session closed under us
+        }
+    }
+
+    /**
+     * Drops game states waiting to be sent, keeping the newest unless the incoming message is itself a game state
+     *
+     * @return true if any were dropped to make room
+     */
+    private boolean makeRoom(boolean incomingBoardState) {
+        if (policy != Policy.DROP_STALE_BOARDS) {
+            return false;
+        }
+        boolean dropped = false;
+        boolean keepNewest = !incomingBoardState;
+        for (Iterator<Outbound> iterator = queue.descendingIterator(); iterator.hasNext(); ) {
+            if (iterator.next().boardState()) {
+                if (keepNewest) {
+                    keepNewest = false;
+                } else {
+                    iterator.remove();
+                    dropped = true;
+                }
+            }
+        }
+        return dropped;
+    }
+}
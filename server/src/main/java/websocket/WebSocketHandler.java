@@ -3,13 +3,13 @@ package websocket;
 import chess.ChessGame;
 import chess.ChessMove;
 import chess.ChessPosition;
-import com.google.gson.Gson;
 import dataaccess.DataAccess;
 import dataaccess.DataAccessException;
 import model.GameData;
 import org.eclipse.jetty.websocket.api.Session;
 import org.eclipse.jetty.websocket.api.annotations.OnWebSocketMessage;
 import org.eclipse.jetty.websocket.api.annotations.WebSocket;
+import serialization.Serializer;
 import service.GameService;
 import service.UserService;
 import websocket.commands.*;
@@ -18,7 +18,6 @@ import websocket.messages.LoadGameMessage;
 import websocket.messages.Notification;
 import websocket.messages.ServerMessage;
 
-import java.io.IOException;
 import java.util.Collection;
 
 @WebSocket
@@ -26,6 +25,7 @@ public class WebSocketHandler {
     private final GameService gameService;
     private final UserService userService;
     private final ConnectionManager connections = new ConnectionManager();
+    private final GameCommandExecutor gameCommands = new GameCommandExecutor();
 
     public WebSocketHandler(DataAccess dataAccess) {
         this.gameService = new GameService(dataAccess);
@@ -33,28 +33,61 @@ public class WebSocketHandler {
     }
 
     @OnWebSocketMessage
-    public void onMessage(Session session, String msg) throws IOException {
+    public void onMessage(Session session, String msg) {
+        UserGameCommand command;
         try {
-            UserGameCommand command = new Gson().fromJson(msg, UserGameCommand.class);
+            command = Serializer.GSON.fromJson(msg, UserGameCommand.class);
+        } catch (RuntimeException e) {
+            sendError(session, null, e);
+            return;
+        }
+        if (command == null || command.getGameID() == null) {
+            handleCommand(session, command, msg); // Fails validation, no game to queue behind
+            return;
+        }
+        // A game's commands run one at a time, so a move cannot interleave with another move or a resign
+        gameCommands.submit(command.getGameID(), () -> handleCommand(session, command, msg));
+    }
 
+    /**
+     * Waits for queued commands to finish
+     */
+    public void close() {
+        gameCommands.close();
+    }
+
+    private void handleCommand(Session session, UserGameCommand command, String msg) {
+        try {
             switch (command.getCommandType()) {
-                case CONNECT -> handleConnect(session, new Gson().fromJson(msg, ConnectCommand.class));
-                case MAKE_MOVE -> handleMove(new Gson().fromJson(msg, MakeMoveCommand.class));
+                case CONNECT -> handleConnect(session, Serializer.GSON.fromJson(msg, ConnectCommand.class));
+                case MAKE_MOVE -> handleMove(Serializer.GSON.fromJson(msg, MakeMoveCommand.class));
                 case LEAVE -> handleLeave(command);
                 case RESIGN -> handleResign(command);
                 case REDRAW -> handleRedraw(command);
-                case HIGHLIGHT -> handleHighlight(session, new Gson().fromJson(msg, HighlightCommand.class));
+                case HIGHLIGHT -> handleHighlight(session, Serializer.GSON.fromJson(msg, HighlightCommand.class));
             }
         }
         catch (Exception e) {
-            ServerMessage error = new ErrorMessage("Error: " + e.getMessage());
-            session.getRemote().sendString(error.toString());
+            sendError(session, command, e);
+        }
+    }
+
+    /**
+     * @param command the command that failed, or null if it could not be read
+     */
+    private void sendError(Session session, UserGameCommand command, Exception e) {
+        ServerMessage error = new ErrorMessage("Error: " + e.getMessage());
+        if (command == null) {
+            connections.reply(session, null, null, error);
+        } else {
+            connections.reply(session, command.getAuthToken(), command.getGameID(), error);
         }
     }
 
     private void handleConnect(Session session, ConnectCommand command) throws Exception {
-        GameData game = getValidGame(command);
-        String userName = userService.getAuth(command.getAuthToken()).username();
+        ValidGame valid = getValidGame(command);
+        GameData game = valid.game();
+        String userName = valid.userName();
 
         connections.add(session, command, userName);
         String message;
@@ -72,10 +105,11 @@ public class WebSocketHandler {
     }
 
     private void handleMove(MakeMoveCommand command) throws Exception {
-        GameData gameData = getValidGame(command);
+        ValidGame valid = getValidGame(command);
+        GameData gameData = valid.game();
         ChessGame game = gameData.game();
 
-        String userName = userService.getAuth(command.getAuthToken()).username();
+        String userName = valid.userName();
         String whiteUserName = gameData.whiteUsername();
         String blackUserName = gameData.blackUsername();
 
@@ -90,7 +124,7 @@ public class WebSocketHandler {
         }
 
         game.makeMove(command.getMove());
-        gameService.updateGame(gameData.gameID(), game);
+        gameService.recordMove(gameData.gameID(), command.getMove(), game);
 
         String startPosition = positionToString(command.getMove().startPosition());
         String endPosition = positionToString(command.getMove().endPosition());
@@ -129,32 +163,33 @@ public class WebSocketHandler {
     }
 
     private void handleRedraw(UserGameCommand command) throws Exception {
-        GameData gameData = getValidGame(command);
-        String userName = userService.getAuth(command.getAuthToken()).username();
+        ValidGame valid = getValidGame(command);
+        GameData gameData = valid.game();
+        String userName = valid.userName();
 
         LoadGameMessage loadGame = new LoadGameMessage(gameData, userName);
         connections.reloadBoard(loadGame, true, userName);
     }
 
     private void handleLeave(UserGameCommand command) throws Exception {
-        GameData game = getValidGame(command);
-
-        String userName = userService.getAuth(command.getAuthToken()).username();
+        ValidGame valid = getValidGame(command);
+        GameData game = valid.game();
+        String userName = valid.userName();
 
         if (userName.equals(game.whiteUsername()) || userName.equals(game.blackUsername())) {
             gameService.leaveGame(command.getAuthToken(), command.getGameID());
         }
         connections.remove(command.getAuthToken(), command.getGameID());
 
-        String message = String.format("%s has left the game", userService.getAuth(command.getAuthToken()).username());
+        String message = String.format("%s has left the game", userName);
         ServerMessage leaveNotification = new Notification(message);
         connections.broadcast(command.getAuthToken(), command.getGameID(), leaveNotification);
     }
 
     private void handleResign(UserGameCommand command) throws Exception {
-        GameData game = getValidGame(command);
-
-        String userName = userService.getAuth(command.getAuthToken()).username();
+        ValidGame valid = getValidGame(command);
+        GameData game = valid.game();
+        String userName = valid.userName();
 
         if (!(userName.equals(game.whiteUsername()) || userName.equals(game.blackUsername()))) {
             throw new Exception("observers cannot resign from game");
@@ -165,18 +200,19 @@ public class WebSocketHandler {
         game.game().endGame();
         gameService.updateGame(game.gameID(), game.game());
 
-        String message = String.format("%s has resigned from the game", userService.getAuth(command.getAuthToken()).username());
+        String message = String.format("%s has resigned from the game", userName);
         ServerMessage leaveNotification = new Notification(message);
         connections.broadcast(null, command.getGameID(), leaveNotification);
     }
 
     private void handleHighlight(Session session, HighlightCommand command) throws Exception {
-        GameData gameData = getValidGame(command);
+        ValidGame valid = getValidGame(command);
+        GameData gameData = valid.game();
         ChessGame game = gameData.game();
 
         Collection<ChessMove> validMoves = game.validMoves(command.getPosition());
         if (!validMoves.isEmpty()) {
-            String userName = userService.getAuth(command.getAuthToken()).username();
+            String userName = valid.userName();
 
             String board;
             if (userName.equals(gameData.blackUsername())) {
@@ -185,16 +221,26 @@ public class WebSocketHandler {
                 board = game.getBoard().buildBoardView(true, validMoves);
             }
             ServerMessage notification = new Notification(board);
-            session.getRemote().sendString(notification.toString());
+            connections.reply(session, command.getAuthToken(), command.getGameID(), notification);
         } else {
             throw new Exception("no valid moves");
         }
     }
 
-    private GameData getValidGame(UserGameCommand command) throws Exception {
+    /**
+     * The command's game and the name of the user who sent it
+     */
+    private record ValidGame(GameData game, String userName) {
+    }
+
+    /**
+     * Looks up the authToken once, so handlers reuse the username instead of querying for it again
+     */
+    private ValidGame getValidGame(UserGameCommand command) throws Exception {
         GameData game;
+        String userName;
         try {
-            gameService.getAllGames(command.getAuthToken());
+            userName = userService.getAuth(command.getAuthToken()).username();
         } catch (DataAccessException ex) {
             throw new Exception("unauthorized");
         }
@@ -206,7 +252,7 @@ public class WebSocketHandler {
         if (game == null || game.game() == null) {
             throw new Exception("Invalid game ID");
         }
-        return game;
+        return new ValidGame(game, userName);
     }
 
     public String positionToString(ChessPosition position) {
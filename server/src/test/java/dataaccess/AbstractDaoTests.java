@@ -1,6 +1,9 @@
 package dataaccess;
 
 import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
 import httpmessages.GameResult;
 import model.AuthData;
 import model.GameData;
@@ -9,6 +12,7 @@ import org.junit.jupiter.api.*;
 import service.GameService;
 import service.UserService;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -359,4 +363,110 @@ public abstract class AbstractDaoTests {
             Assertions.assertEquals("already taken", e.getMessage(), "Should be 'already taken' error");
         }
     }
+
+    @Test
+    @DisplayName("White leaves the game while black stays seated on Database")
+    public void leaveGameWhiteKeepsBlackDatabase() {
+        try {
+            UserService userService1;
+            GameService gameService1;
+            if (memoryDaoTesting()) {
+                DataAccess dataAccess = new MemoryDataAccess();
+                userService1 = new UserService(dataAccess);
+                gameService1 = new GameService(dataAccess);
+            } else {
+                userService1 = userService;
+                gameService1 = gameService;
+            }
+
+            AuthData white = userService1.register(new UserData("user1", "test", "test@"));
+            AuthData black = userService1.register(new UserData("user2", "test", "test@"));
+            int gameID = gameService1.createGame(white.authToken(), "testGame");
+            gameService1.joinGame(white.authToken(), ChessGame.TeamColor.WHITE, gameID);
+            gameService1.joinGame(black.authToken(), ChessGame.TeamColor.BLACK, gameID);
+            gameService1.leaveGame(white.authToken(), gameID);
+            GameData game = gameService1.getGame(gameID);
+
+            Assertions.assertNull(game.whiteUsername(), "White should have left");
+            Assertions.assertEquals("user2", game.blackUsername(), "Black should still be seated");
+        } catch (DataAccessException e) {
+            Assertions.fail("Shouldn't throw error, threw " + e.getMessage());
+        }
+    }
+
+    @Test
+    @DisplayName("Record moves and rebuild the game from its move history on Database")
+    public void recordMovesDatabase() {
+        try {
+            UserService userService1;
+            GameService gameService1;
+            if (memoryDaoTesting()) {
+                DataAccess dataAccess = new MemoryDataAccess();
+                userService1 = new UserService(dataAccess);
+                gameService1 = new GameService(dataAccess);
+            } else {
+                userService1 = userService;
+                gameService1 = gameService;
+            }
+
+            AuthData result = userService1.register(TEST_USER);
+            int gameID = gameService1.createGame(result.authToken(), "testGame");
+
+            // Knights out and back, long enough to pass a snapshot and leave moves to replay after it
+            ChessMove[] knightMoves = {
+                    new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null),
+                    new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null),
+                    new ChessMove(new ChessPosition(3, 6), new ChessPosition(1, 7), null),
+                    new ChessMove(new ChessPosition(6, 6), new ChessPosition(8, 7), null)
+            };
+            List<ChessMove> played = new ArrayList<>();
+            ChessGame game = gameService1.getGame(gameID).game();
+            for (int i = 0; i < 24; i++) {
+                ChessMove move = knightMoves[i % knightMoves.length];
+                game.makeMove(move);
+                gameService1.recordMove(gameID, move, game);
+                played.add(move);
+            }
+
+            GameData stored = gameService1.getGame(gameID);
+            Assertions.assertEquals(played, gameService1.getMoves(gameID), "Move history should match moves played");
+            Assertions.assertEquals(ChessGame.TeamColor.WHITE, stored.game().getTeamTurn(), "White should be to move");
+            Assertions.assertEquals(13, stored.game().getFullmoveNumber(), "Fullmove number should be replayed");
+            Assertions.assertEquals(new ChessGame().getBoard(), stored.game().getBoard(),
+                    "Knights should be back on their starting squares");
+        } catch (DataAccessException | InvalidMoveException e) {
+            Assertions.fail("Shouldn't throw error");
+        }
+    }
+
+    @Test
+    @DisplayName("Fail to record a move at a ply already recorded on Database")
+    public void recordMoveDuplicatePlyDatabase() {
+        try {
+            UserService userService1;
+            GameService gameService1;
+            if (memoryDaoTesting()) {
+                DataAccess dataAccess = new MemoryDataAccess();
+                userService1 = new UserService(dataAccess);
+                gameService1 = new GameService(dataAccess);
+            } else {
+                userService1 = userService;
+                gameService1 = gameService;
+            }
+
+            AuthData result = userService1.register(TEST_USER);
+            int gameID = gameService1.createGame(result.authToken(), "testGame");
+            ChessMove move = new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null);
+            ChessGame game = gameService1.getGame(gameID).game();
+            game.makeMove(move);
+            gameService1.recordMove(gameID, move, game);
+            gameService1.recordMove(gameID, move, game);
+
+            Assertions.fail("Should have thrown 'already taken' error");
+        } catch (DataAccessException e) {
+            Assertions.assertEquals("already taken", e.getMessage(), "Should be 'already taken' error");
+        } catch (InvalidMoveException e) {
+            Assertions.fail("Shouldn't throw error");
+        }
+    }
 }
@@ -0,0 +1,220 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import model.GameData;
+import model.UserData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class CachingDataAccessTests {
+    private static final ChessMove WHITE_KNIGHT_OUT = new ChessMove(new ChessPosition(1, 7), new ChessPosition(3, 6), null);
+    private static final ChessMove BLACK_KNIGHT_OUT = new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null);
+    private static final ChessMove WHITE_KNIGHT_BACK = new ChessMove(new ChessPosition(3, 6), new ChessPosition(1, 7), null);
+
+    private CountingDataAccess storage;
+    private CachingDataAccess cache;
+    private String authToken;
+    private int gameID;
+
+    /**
+     * Counts the calls that reach storage, hands out copies of its games, and can be made to fail recording moves
+     */
+    private static class CountingDataAccess extends MemoryDataAccess {
+        private int gameReads = 0;
+        private int moveWrites = 0;
+        private int gameWrites = 0;
+        private String moveWriteError = null; // Set to make recording moves fail with this message
+
+        @Override
+        public GameData getGame(int gameID) throws DataAccessException {
+            gameReads++;
+            // A copy, as a database would give, so moves made on the cached game never reach storage unwritten
+            GameData stored = super.getGame(gameID);
+            return new GameData(gameID, stored.whiteUsername(), stored.blackUsername(), stored.gameName(),
+                    new ChessGame(stored.game()));
+        }
+
+        @Override
+        public void updateGame(int gameID, ChessGame updatedGame) throws DataAccessException {
+            gameWrites++;
+            super.updateGame(gameID, updatedGame);
+        }
+
+        @Override
+        public void recordMoves(int gameID, List<ChessMove> moves, ChessGame updatedGame) throws DataAccessException {
+            moveWrites++;
+            if (moveWriteError != null) {
+                throw new DataAccessException(moveWriteError);
+            }
+            super.recordMoves(gameID, moves, updatedGame);
+        }
+    }
+
+    @BeforeEach
+    public void setUp() throws DataAccessException {
+        storage = new CountingDataAccess();
+        // A flush lag long enough that only the test flushes
+        cache = new CachingDataAccess(storage, 3_600_000, 3_600_000);
+        cache.createUser(new UserData("testUser", "test", "test@"));
+        authToken = cache.createAuth("testUser");
+        gameID = cache.createGame(authToken, "testGame");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        cache.close();
+    }
+
+    @Test
+    @DisplayName("A cached game is read from storage only once")
+    public void readsServedFromCache() throws DataAccessException {
+        GameData first = cache.getGame(gameID);
+        GameData second = cache.getGame(gameID);
+
+        Assertions.assertSame(first.game(), second.game(), "Both reads should return the live game");
+        Assertions.assertEquals(1, storage.gameReads, "Only the first read should reach storage");
+    }
+
+    @Test
+    @DisplayName("Moves are written behind, in one batch per game")
+    public void movesWrittenBehind() throws Exception {
+        ChessGame game = cache.getGame(gameID).game();
+        for (ChessMove move : List.of(WHITE_KNIGHT_OUT, BLACK_KNIGHT_OUT)) {
+            game.makeMove(move);
+            cache.recordMove(gameID, move, game);
+        }
+        Assertions.assertEquals(0, storage.moveWrites, "Moves should wait for the flush");
+        Assertions.assertEquals(ChessGame.TeamColor.WHITE, cache.getGame(gameID).game().getTeamTurn(),
+                "The cached game should already have the moves");
+
+        cache.flush();
+        Assertions.assertEquals(1, storage.moveWrites, "Both moves should be written together");
+        Assertions.assertEquals(List.of(WHITE_KNIGHT_OUT, BLACK_KNIGHT_OUT), storage.getMoves(gameID),
+                "Storage should have the moves in order");
+
+        game.makeMove(WHITE_KNIGHT_BACK);
+        Assertions.assertEquals(2, storage.getGame(gameID).game().getPlyCount(),
+                "Storage should hold a copy, not the live game");
+    }
+
+    @Test
+    @DisplayName("Closing flushes queued updates")
+    public void closeFlushes() throws DataAccessException {
+        ChessGame game = cache.getGame(gameID).game();
+        game.endGame();
+        cache.updateGame(gameID, game);
+        Assertions.assertEquals(0, storage.gameWrites, "The update should be queued");
+
+        cache.close();
+        Assertions.assertEquals(1, storage.gameWrites, "Closing should write the update");
+        Assertions.assertTrue(storage.getGame(gameID).game().isGameOver(), "Closing should write the update");
+    }
+
+    @Test
+    @DisplayName("Moves that fail to save are kept and retried ahead of later moves")
+    public void failedFlushRetried() throws Exception {
+        ChessGame game = cache.getGame(gameID).game();
+        game.makeMove(WHITE_KNIGHT_OUT);
+        cache.recordMove(gameID, WHITE_KNIGHT_OUT, game);
+
+        storage.moveWriteError = "unable to update database";
+        cache.flush();
+        storage.moveWriteError = null;
+
+        game.makeMove(BLACK_KNIGHT_OUT);
+        cache.recordMove(gameID, BLACK_KNIGHT_OUT, game);
+        cache.flush();
+        Assertions.assertEquals(List.of(WHITE_KNIGHT_OUT, BLACK_KNIGHT_OUT), storage.getMoves(gameID),
+                "Retried moves should be written before later ones");
+    }
+
+    @Test
+    @DisplayName("Moves the store rejects are dropped at once and the game is reloaded")
+    public void permanentFailureDropped() throws Exception {
+        ChessGame game = cache.getGame(gameID).game();
+        game.makeMove(WHITE_KNIGHT_OUT);
+        cache.recordMove(gameID, WHITE_KNIGHT_OUT, game);
+
+        storage.moveWriteError = "already taken";
+        cache.flush();
+        cache.flush();
+        Assertions.assertEquals(1, storage.moveWrites, "A rejected write should not be retried");
+        Assertions.assertEquals(1, cache.getDroppedWrites(), "The dropped move should be counted");
+
+        cache.getGame(gameID);
+        Assertions.assertEquals(2, storage.gameReads, "The game should be reloaded from storage");
+    }
+
+    @Test
+    @DisplayName("A game held across a drop is refused rather than written past the lost moves")
+    public void staleGameRejected() throws Exception {
+        ChessGame game = cache.getGame(gameID).game();
+        game.makeMove(WHITE_KNIGHT_OUT);
+        cache.recordMove(gameID, WHITE_KNIGHT_OUT, game);
+        storage.moveWriteError = "already taken";
+        cache.flush();
+        storage.moveWriteError = null;
+
+        game.makeMove(BLACK_KNIGHT_OUT);
+        Assertions.assertThrows(DataAccessException.class, () -> cache.recordMove(gameID, BLACK_KNIGHT_OUT, game),
+                "The stale game should be refused");
+        cache.flush();
+        Assertions.assertEquals(List.of(), storage.getMoves(gameID), "Nothing should be written past the gap");
+        Assertions.assertEquals(0, cache.getGame(gameID).game().getPlyCount(),
+                "The cache should keep the game as stored");
+
+        ChessGame reloaded = cache.getGame(gameID).game();
+        reloaded.makeMove(WHITE_KNIGHT_OUT);
+        cache.recordMove(gameID, WHITE_KNIGHT_OUT, reloaded);
+        cache.flush();
+        Assertions.assertEquals(List.of(WHITE_KNIGHT_OUT), storage.getMoves(gameID), "A fresh read should work");
+    }
+
+    @Test
+    @DisplayName("Moves that keep failing are dropped after a bounded number of attempts")
+    public void transientFailureGivesUp() throws Exception {
+        ChessGame game = cache.getGame(gameID).game();
+        game.makeMove(WHITE_KNIGHT_OUT);
+        cache.recordMove(gameID, WHITE_KNIGHT_OUT, game);
+
+        storage.moveWriteError = "unable to update database";
+        for (int i = 0; i < 20; i++) {
+            cache.flush();
+        }
+        Assertions.assertTrue(storage.moveWrites < 20, "Attempts should stop once the limit is reached");
+        Assertions.assertEquals(1, cache.getDroppedWrites(), "The dropped move should be counted");
+    }
+
+    @Test
+    @DisplayName("Joining and leaving update the cached game")
+    public void playersKeptInSync() throws DataAccessException {
+        cache.getGame(gameID);
+
+        cache.addUserToGame(authToken, ChessGame.TeamColor.WHITE, gameID);
+        Assertions.assertEquals("testUser", cache.getGame(gameID).whiteUsername(), "Join should reach the cache");
+        Assertions.assertEquals("testUser", storage.getGame(gameID).whiteUsername(), "Join should be written through");
+
+        cache.removeUserFromGame(authToken, gameID);
+        Assertions.assertNull(cache.getGame(gameID).whiteUsername(), "Leave should reach the cache");
+    }
+
+    @Test
+    @DisplayName("Clearing drops cached games and queued writes")
+    public void clearDropsEverything() throws Exception {
+        ChessGame game = cache.getGame(gameID).game();
+        game.makeMove(WHITE_KNIGHT_OUT);
+        cache.recordMove(gameID, WHITE_KNIGHT_OUT, game);
+
+        cache.clear();
+        cache.flush();
+        Assertions.assertThrows(DataAccessException.class, () -> cache.getGame(gameID), "Game should be gone");
+        Assertions.assertThrows(DataAccessException.class, () -> cache.getAuth(authToken), "AuthToken should be gone");
+    }
+}
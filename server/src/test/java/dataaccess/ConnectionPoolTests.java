@@ -0,0 +1,154 @@
+package dataaccess;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+public class ConnectionPoolTests {
+    private static final String URL = "jdbc:pooltest:";
+    private static final StubDriver DRIVER = new StubDriver();
+
+    @BeforeAll
+    public static void registerDriver() throws SQLException {
+        DriverManager.registerDriver(DRIVER);
+    }
+
+    @AfterAll
+    public static void deregisterDriver() throws SQLException {
+        DriverManager.deregisterDriver(DRIVER);
+    }
+
+    @Test
+    @DisplayName("Closing a pooled connection returns it for reuse")
+    public void reusesConnections() throws Exception {
+        try (ConnectionPool pool = newPool(new ConnectionPool.Settings(2, 1_000, 60_000, 60_000, 1))) {
+            Connection first = pool.getConnection();
+            Assertions.assertEquals(1, pool.getStats().active(), "One connection should be borrowed");
+            first.close();
+            first.close(); // Closing twice must not return it twice
+            Assertions.assertTrue(first.isClosed(), "Returned connection should report closed");
+            Assertions.assertThrows(SQLException.class, first::getCatalog, "Returned connection should be unusable");
+
+            try (Connection second = pool.getConnection()) {
+                Assertions.assertEquals("chess", second.getCatalog(), "Catalog should be set");
+            }
+            ConnectionPool.Stats stats = pool.getStats();
+            Assertions.assertEquals(1, stats.created(), "Only one physical connection should be opened");
+            Assertions.assertEquals(2, stats.borrows(), "Both borrows should be counted");
+            Assertions.assertEquals(0, stats.active(), "No connections should be borrowed");
+            Assertions.assertEquals(1, stats.idle(), "The connection should be idle");
+        }
+    }
+
+    @Test
+    @DisplayName("Borrowers wait for a free connection and time out when none frees up")
+    public void boundedSize() throws Exception {
+        try (ConnectionPool pool = newPool(new ConnectionPool.Settings(1, 50, 60_000, 60_000, 1))) {
+            Connection held = pool.getConnection();
+            DataAccessException e = Assertions.assertThrows(DataAccessException.class, pool::getConnection);
+            Assertions.assertTrue(e.getMessage().contains("timed out"), "Should time out waiting");
+            held.close();
+            pool.getConnection().close();
+            Assertions.assertEquals(1, pool.getStats().created(), "Pool should never exceed its size");
+        }
+    }
+
+    @Test
+    @DisplayName("Connections past their lifetime are replaced and broken ones are not reused")
+    public void evictsExpiredAndInvalid() throws Exception {
+        try (ConnectionPool pool = newPool(new ConnectionPool.Settings(2, 1_000, 60_000, 0, 1))) {
+            pool.getConnection().close();
+            pool.getConnection().close();
+            Assertions.assertEquals(2, pool.getStats().created(), "Expired connection should be replaced");
+            Assertions.assertEquals(0, pool.getStats().idle(), "Expired connection should not be kept idle");
+        }
+
+        try (ConnectionPool pool = newPool(new ConnectionPool.Settings(2, 1_000, 60_000, 60_000, 1))) {
+            pool.getConnection().close();
+            DRIVER.invalid = true;
+            Thread.sleep(600); // Idle long enough to be validated before reuse
+            pool.getConnection().close();
+            Assertions.assertEquals(2, pool.getStats().created(), "Invalid connection should be replaced");
+        } finally {
+            DRIVER.invalid = false;
+        }
+    }
+
+    private static ConnectionPool newPool(ConnectionPool.Settings settings) {
+        return new ConnectionPool(URL, "user", "password", "chess", settings);
+    }
+
+    /**
+     * Hands out connections that remember their catalog and report themselves invalid on request
+     */
+    private static class StubDriver implements Driver {
+        private volatile boolean invalid = false;
+
+        @Override
+        public Connection connect(String url, Properties info) {
+            if (!acceptsURL(url)) {
+                return null;
+            }
+            String[] catalog = new String[1];
+            boolean[] closed = new boolean[1];
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> switch (method.getName()) {
+                        case "setCatalog" -> {
+                            catalog[0] = (String) args[0];
+                            yield null;
+                        }
+                        case "getCatalog" -> catalog[0];
+                        case "isValid" -> !invalid && !closed[0];
+                        case "getAutoCommit" -> true;
+                        case "close" -> {
+                            closed[0] = true;
+                            yield null;
+                        }
+                        case "isClosed" -> closed[0];
+                        default -> throw new SQLFeatureNotSupportedException(method.getName());
+                    });
+        }
+
+        @Override
+        public boolean acceptsURL(String url) {
+            return url.startsWith(URL);
+        }
+
+        @Override
+        public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+            return new DriverPropertyInfo[0];
+        }
+
+        @Override
+        public int getMajorVersion() {
+            return 1;
+        }
+
+        @Override
+        public int getMinorVersion() {
+            return 0;
+        }
+
+        @Override
+        public boolean jdbcCompliant() {
+            return false;
+        }
+
+        @Override
+        public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+            throw new SQLFeatureNotSupportedException();
+        }
+    }
+}
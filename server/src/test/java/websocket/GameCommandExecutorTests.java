@@ -0,0 +1,66 @@
+package websocket;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class GameCommandExecutorTests {
+
+    @Test
+    @DisplayName("A game's commands run one at a time in the order submitted")
+    public void serialPerGame() {
+        List<Integer> order = new ArrayList<>();
+        AtomicInteger running = new AtomicInteger();
+        AtomicBoolean overlapped = new AtomicBoolean(false);
+        try (GameCommandExecutor executor = new GameCommandExecutor()) {
+            for (int i = 0; i < 1000; i++) {
+                int command = i;
+                executor.submit(1234, () -> {
+                    if (running.incrementAndGet() != 1) {
+                        overlapped.set(true);
+                    }
+                    order.add(command);
+                    running.decrementAndGet();
+                });
+            }
+        }
+        Assertions.assertFalse(overlapped.get(), "Commands for one game should never overlap");
+        Assertions.assertEquals(1000, order.size(), "Every command should run");
+        for (int i = 0; i < order.size(); i++) {
+            Assertions.assertEquals(i, order.get(i), "Commands should run in the order submitted");
+        }
+    }
+
+    @Test
+    @DisplayName("Different games run in parallel and a failing command does not stop its game")
+    public void parallelAcrossGames() throws InterruptedException {
+        CountDownLatch otherGameRan = new CountDownLatch(1);
+        AtomicBoolean waited = new AtomicBoolean(false);
+        AtomicBoolean ranAfterFailure = new AtomicBoolean(false);
+        try (GameCommandExecutor executor = new GameCommandExecutor()) {
+            executor.submit(1000, () -> {
+                try {
+                    waited.set(otherGameRan.await(5, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            executor.submit(2000, () -> {
+                throw new IllegalStateException("command failed");
+            });
+            executor.submit(2000, () -> {
+                ranAfterFailure.set(true);
+                otherGameRan.countDown();
+            });
+        }
+        Assertions.assertTrue(waited.get(), "A blocked game should not hold up another game");
+        Assertions.assertTrue(ranAfterFailure.get(), "Commands after a failure should still run");
+    }
+}
@@ -0,0 +1,128 @@
+package websocket;
+
+import org.eclipse.jetty.websocket.api.RemoteEndpoint;
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.StatusCode;
+import org.eclipse.jetty.websocket.api.WriteCallback;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import websocket.commands.ConnectCommand;
+import websocket.messages.ErrorMessage;
+import websocket.messages.Notification;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+public class OutboundQueueTests {
+
+    @Test
+    @DisplayName("Messages are written one at a time, in order, without blocking the sender")
+    public void writesInOrder() {
+        StubSession stub = new StubSession();
+        OutboundQueue queue = new OutboundQueue(stub.session, 8, OutboundQueue.Policy.DISCONNECT);
+        queue.send("a", false);
+        queue.send("b", true);
+        queue.send("c", false);
+        Assertions.assertEquals(List.of("a"), stub.written, "Only one write should be in flight");
+
+        stub.completeAll();
+        Assertions.assertEquals(List.of("a", "b", "c"), stub.written, "Messages should be written in order");
+        Assertions.assertEquals(0, queue.size(), "Queue should be empty");
+    }
+
+    @Test
+    @DisplayName("A full queue drops stale game states but keeps the newest")
+    public void dropsStaleBoards() {
+        StubSession stub = new StubSession();
+        OutboundQueue queue = new OutboundQueue(stub.session, 3, OutboundQueue.Policy.DROP_STALE_BOARDS);
+        queue.send("in flight", false);
+        queue.send("board 1", true);
+        queue.send("board 2", true);
+        queue.send("note 1", false);
+        queue.send("note 2", false); // Full: board 1 goes, board 2 is the newest and stays
+        queue.send("board 3", true); // Full: board 2 goes
+
+        stub.completeAll();
+        Assertions.assertEquals(List.of("in flight", "note 1", "note 2", "board 3"), stub.written,
+                "Only the newest game state should be written");
+        Assertions.assertEquals(-1, stub.closeStatus, "Client should stay connected");
+    }
+
+    @Test
+    @DisplayName("A full queue disconnects the client when nothing can be dropped")
+    public void disconnectsSlowConsumer() {
+        StubSession stub = new StubSession();
+        OutboundQueue queue = new OutboundQueue(stub.session, 1, OutboundQueue.Policy.DISCONNECT);
+        queue.send("in flight", true);
+        queue.send("board 1", true);
+        queue.send("board 2", true);
+        Assertions.assertEquals(StatusCode.POLICY_VIOLATION, stub.closeStatus, "Slow client should be disconnected");
+
+        queue.send("later", false);
+        stub.completeAll();
+        Assertions.assertEquals(List.of("in flight"), stub.written, "Nothing more should be written");
+    }
+
+    @Test
+    @DisplayName("Replies to a connected session go through its queue, others are sent directly")
+    public void repliesQueued() {
+        StubSession stub = new StubSession();
+        ConnectionManager connections = new ConnectionManager(8, OutboundQueue.Policy.DISCONNECT);
+        connections.add(stub.session, new ConnectCommand("token", 1234, null), "user");
+        connections.reply(stub.session, "token", 1234, new Notification("first"));
+        connections.reply(stub.session, "token", 1234, new ErrorMessage("Error: second"));
+        Assertions.assertEquals(1, stub.written.size(), "The reply should wait behind the write in flight");
+        stub.completeAll();
+        Assertions.assertEquals(2, stub.written.size(), "Both replies should be written");
+        Assertions.assertTrue(stub.written.get(1).contains("second"), "Replies should be written in order");
+
+        StubSession unconnected = new StubSession();
+        connections.reply(unconnected.session, "other", 1234, new ErrorMessage("Error: not connected"));
+        Assertions.assertEquals(1, unconnected.direct.size(), "A session that never connected is sent directly");
+        Assertions.assertTrue(stub.direct.isEmpty(), "Nothing should bypass the connected session's queue");
+    }
+
+    /**
+     * Records writes and holds their callbacks until completed, like a client that is slow to read
+     */
+    private static class StubSession {
+        private final List<String> written = new ArrayList<>();
+        private final List<WriteCallback> pending = new ArrayList<>();
+        private final List<String> direct = new ArrayList<>(); // Sent around the queue
+        private int closeStatus = -1;
+        private final Session session;
+
+        StubSession() {
+            RemoteEndpoint remote = (RemoteEndpoint) Proxy.newProxyInstance(RemoteEndpoint.class.getClassLoader(),
+                    new Class<?>[]{RemoteEndpoint.class}, (proxy, method, args) -> {
+                        if (method.getName().equals("sendString") && args.length == 2) {
+                            written.add((String) args[0]);
+                            pending.add((WriteCallback) args[1]);
+                            return null;
+                        }
+                        if (method.getName().equals("sendStringByFuture")) {
+                            direct.add((String) args[0]);
+                            return null;
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    });
+            session = (Session) Proxy.newProxyInstance(Session.class.getClassLoader(), new Class<?>[]{Session.class},
+                    (proxy, method, args) -> switch (method.getName()) {
+                        case "getRemote" -> remote;
+                        case "close" -> {
+                            closeStatus = (int) args[0];
+                            yield null;
+                        }
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+
+        void completeAll() {
+            while (!pending.isEmpty()) {
+                pending.removeFirst().writeSuccess();
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package chess;
+
+/**
+ * Attack sets for each piece type as bitboards, see Bitboard for square numbering
+ */
+public class Attacks {
+    private static final int[][] KNIGHT_DIRECTIONS = {
+            {2, 1}, {2, -1}, {1, 2}, {-1, 2}, {-2, 1}, {-2, -1}, {1, -2}, {-1, -2}
+    };
+    private static final int[][] KING_DIRECTIONS = {
+            {1, 0}, {1, 1}, {0, 1}, {-1, 1}, {-1, 0}, {-1, -1}, {0, -1}, {1, -1}
+    };
+
+    // Leaper attacks never depend on occupancy, so they are looked up rather than computed
+    private static final long[] KNIGHT_ATTACKS = new long[64];
+    private static final long[] KING_ATTACKS = new long[64];
+    private static final long[][] PAWN_ATTACKS = new long[2][64]; // Indexed by TeamColor ordinal
+
+    // Squares strictly between two squares on a shared rank, file or diagonal, otherwise empty
+    private static final long[][] BETWEEN = new long[64][64];
+    // Whole rank, file or diagonal through two squares (edge to edge), otherwise empty
+    private static final long[][] LINE = new long[64][64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            KNIGHT_ATTACKS[square] = stepAttacks(square, KNIGHT_DIRECTIONS);
+            KING_ATTACKS[square] = stepAttacks(square, KING_DIRECTIONS);
+            PAWN_ATTACKS[ChessGame.TeamColor.WHITE.ordinal()][square] = stepAttacks(square, new int[][]{{1, -1}, {1, 1}});
+            PAWN_ATTACKS[ChessGame.TeamColor.BLACK.ordinal()][square] = stepAttacks(square, new int[][]{{-1, -1}, {-1, 1}});
+        }
+
+        for (int from = 0; from < 64; from++) {
+            for (int[] direction : KING_DIRECTIONS) {
+                long fullLine = ray(from, direction) | ray(from, new int[]{-direction[0], -direction[1]})
+                        | Bitboard.bit(from);
+                long path = 0;
+                int row = Bitboard.rowOf(from) + direction[0];
+                int column = Bitboard.columnOf(from) + direction[1];
+                while (isInBounds(row, column)) {
+                    int to = Bitboard.square(row, column);
+                    BETWEEN[from][to] = path;
+                    LINE[from][to] = fullLine;
+                    path |= Bitboard.bit(to);
+                    row += direction[0];
+                    column += direction[1];
+                }
+            }
+        }
+    }
+
+    public static long knightAttacks(int square) {
+        return KNIGHT_ATTACKS[square];
+    }
+
+    public static long kingAttacks(int square) {
+        return KING_ATTACKS[square];
+    }
+
+    /**
+     * @param color  team of the pawn
+     * @param square square the pawn is on
+     * @return squares the pawn attacks diagonally
+     */
+    public static long pawnAttacks(ChessGame.TeamColor color, int square) {
+        return PAWN_ATTACKS[color.ordinal()][square];
+    }
+
+    /**
+     * @param square   square the rook is on
+     * @param occupied squares holding pieces of either team, each one ends a ray
+     * @return squares the rook attacks, including the first blocker in each direction
+     */
+    public static long rookAttacks(int square, long occupied) {
+        return MagicAttacks.rookAttacks(square, occupied);
+    }
+
+    public static long bishopAttacks(int square, long occupied) {
+        return MagicAttacks.bishopAttacks(square, occupied);
+    }
+
+    public static long queenAttacks(int square, long occupied) {
+        return rookAttacks(square, occupied) | bishopAttacks(square, occupied);
+    }
+
+    /**
+     * @return squares strictly between from and to, or 0 if they do not share a line
+     */
+    public static long between(int from, int to) {
+        return BETWEEN[from][to];
+    }
+
+    /**
+     * @return every square on the line through from and to, or 0 if they do not share a line
+     */
+    public static long line(int from, int to) {
+        return LINE[from][to];
+    }
+
+    /**
+     * Finds every piece of a team that attacks a square
+     *
+     * @param bitboard pieces on the board
+     * @param square   square under attack
+     * @param attacker team whose pieces are attacking
+     * @param occupied occupancy used to stop sliding pieces, may differ from the board to test a hypothetical move
+     * @return squares of the attacking pieces
+     */
+    public static long attackersTo(Bitboard bitboard, int square, ChessGame.TeamColor attacker, long occupied) {
+        ChessGame.TeamColor defender = (attacker == ChessGame.TeamColor.WHITE)
+                ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        long queens = bitboard.getPieces(attacker, ChessPiece.PieceType.QUEEN);
+        return (pawnAttacks(defender, square) & bitboard.getPieces(attacker, ChessPiece.PieceType.PAWN))
+                | (knightAttacks(square) & bitboard.getPieces(attacker, ChessPiece.PieceType.KNIGHT))
+                | (kingAttacks(square) & bitboard.getPieces(attacker, ChessPiece.PieceType.KING))
+                | (rookAttacks(square, occupied) & (bitboard.getPieces(attacker, ChessPiece.PieceType.ROOK) | queens))
+                | (bishopAttacks(square, occupied) & (bitboard.getPieces(attacker, ChessPiece.PieceType.BISHOP) | queens));
+    }
+
+    /**
+     * Decides whether a team attacks a square by looking outward from the square: a square is attacked by a
+     * knight exactly when a knight stands a knight's move away, and likewise for pawns, kings and sliders.
+     * Cheap leaper lookups run first and the first hit returns.
+     *
+     * @param bitboard pieces on the board
+     * @param square   square that may be attacked
+     * @param attacker team whose pieces may be attacking
+     * @param occupied occupancy used to stop sliding pieces, may differ from the board to test a hypothetical move
+     * @return true if any piece of the attacking team attacks the square
+     */
+    public static boolean isAttacked(Bitboard bitboard, int square, ChessGame.TeamColor attacker, long occupied) {
+        ChessGame.TeamColor defender = (attacker == ChessGame.TeamColor.WHITE)
+                ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        if ((pawnAttacks(defender, square) & bitboard.getPieces(attacker, ChessPiece.PieceType.PAWN)) != 0
+                || (knightAttacks(square) & bitboard.getPieces(attacker, ChessPiece.PieceType.KNIGHT)) != 0
+                || (kingAttacks(square) & bitboard.getPieces(attacker, ChessPiece.PieceType.KING)) != 0) {
+            return true;
+        }
+        long queens = bitboard.getPieces(attacker, ChessPiece.PieceType.QUEEN);
+        long diagonalSliders = bitboard.getPieces(attacker, ChessPiece.PieceType.BISHOP) | queens;
+        if (diagonalSliders != 0 && (bishopAttacks(square, occupied) & diagonalSliders) != 0) {
+            return true;
+        }
+        long straightSliders = bitboard.getPieces(attacker, ChessPiece.PieceType.ROOK) | queens;
+        return straightSliders != 0 && (rookAttacks(square, occupied) & straightSliders) != 0;
+    }
+
+    private static long stepAttacks(int square, int[][] directions) {
+        long attacks = 0;
+        int row = Bitboard.rowOf(square);
+        int column = Bitboard.columnOf(square);
+        for (int[] direction : directions) {
+            if (isInBounds(row + direction[0], column + direction[1])) {
+                attacks |= Bitboard.bit(Bitboard.square(row + direction[0], column + direction[1]));
+            }
+        }
+        return attacks;
+    }
+
+    /**
+     * Walks each ray square by square, used to fill the lookup tables rather than at move time
+     */
+    static long slidingAttacks(int square, long occupied, int[][] directions) {
+        long attacks = 0;
+        for (int[] direction : directions) {
+            int row = Bitboard.rowOf(square) + direction[0];
+            int column = Bitboard.columnOf(square) + direction[1];
+            while (isInBounds(row, column)) {
+                long target = Bitboard.bit(Bitboard.square(row, column));
+                attacks |= target;
+                if ((occupied & target) != 0) {
+                    break;
+                }
+                row += direction[0];
+                column += direction[1];
+            }
+        }
+        return attacks;
+    }
+
+    private static long ray(int square, int[] direction) {
+        return slidingAttacks(square, 0, new int[][]{direction});
+    }
+
+    private static boolean isInBounds(int row, int column) {
+        return row >= 1 && row <= 8 && column >= 1 && column <= 8;
+    }
+}
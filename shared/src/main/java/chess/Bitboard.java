@@ -0,0 +1,176 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * Bitboard representation of a chessboard: one 64-bit set for each of the twelve colored piece types,
+ * plus occupancy masks for each team and for the whole board.
+ * <p>
+ * Squares are indexed {@code rowIndex * 8 + columnIndex}, so a1 is bit 0, h1 is bit 7 and h8 is bit 63.
+ */
+public class Bitboard implements Cloneable {
+    private static final int PIECE_TYPES = ChessPiece.PieceType.values().length;
+
+    private long[] pieces = new long[2 * PIECE_TYPES];
+    private long[] teamOccupancy = new long[2];
+    private long occupied;
+    private long key; // Zobrist key of the pieces, see Zobrist
+
+    public Bitboard() {
+
+    }
+
+    /**
+     * Builds a bitboard mirroring the given 8x8 array of pieces
+     *
+     * @param squares pieces indexed [rowIndex][columnIndex], null for empty squares
+     * @return bitboard holding the same pieces
+     */
+    public static Bitboard fromSquares(ChessPiece[][] squares) {
+        Bitboard bitboard = new Bitboard();
+        for (int i = 0; i < 8; i++) {
+            for (int j = 0; j < 8; j++) {
+                if (squares[i][j] != null) {
+                    bitboard.add(i * 8 + j, squares[i][j]);
+                }
+            }
+        }
+        return bitboard;
+    }
+
+    /**
+     * @return square index of a 1-based position
+     */
+    public static int square(ChessPosition position) {
+        return position.getRowIndex() * 8 + position.getColumnIndex();
+    }
+
+    /**
+     * @return square index of a 1-based row and column
+     */
+    public static int square(int row, int column) {
+        return (row - 1) * 8 + (column - 1);
+    }
+
+    /**
+     * @return 1-based row of a square index
+     */
+    public static int rowOf(int square) {
+        return (square >>> 3) + 1;
+    }
+
+    /**
+     * @return 1-based column of a square index
+     */
+    public static int columnOf(int square) {
+        return (square & 7) + 1;
+    }
+
+    /**
+     * @return shared ChessPosition of a square index
+     */
+    public static ChessPosition toPosition(int square) {
+        return ChessPosition.of(rowOf(square), columnOf(square));
+    }
+
+    /**
+     * @return single-bit mask for a square index
+     */
+    public static long bit(int square) {
+        return 1L << square;
+    }
+
+    /**
+     * Index into the piece bitboards, white pieces first
+     */
+    static int pieceIndex(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return color.ordinal() * PIECE_TYPES + type.ordinal();
+    }
+
+    /**
+     * Places a piece on an empty square
+     *
+     * @param square square index
+     * @param piece  piece to place, must not be null
+     */
+    public void add(int square, ChessPiece piece) {
+        long mask = bit(square);
+        int index = pieceIndex(piece.getTeamColor(), piece.getPieceType());
+        pieces[index] |= mask;
+        teamOccupancy[piece.getTeamColor().ordinal()] |= mask;
+        occupied |= mask;
+        key ^= Zobrist.piece(index, square);
+    }
+
+    /**
+     * Removes a piece from its square
+     *
+     * @param square square index
+     * @param piece  piece currently on the square, must not be null
+     */
+    public void remove(int square, ChessPiece piece) {
+        long mask = ~bit(square);
+        int index = pieceIndex(piece.getTeamColor(), piece.getPieceType());
+        pieces[index] &= mask;
+        teamOccupancy[piece.getTeamColor().ordinal()] &= mask;
+        occupied &= mask;
+        key ^= Zobrist.piece(index, square);
+    }
+
+    /**
+     * @return set of squares holding the given piece type of the given team
+     */
+    public long getPieces(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return pieces[pieceIndex(color, type)];
+    }
+
+    /**
+     * @return set of squares holding any piece of the given team
+     */
+    public long getOccupancy(ChessGame.TeamColor color) {
+        return teamOccupancy[color.ordinal()];
+    }
+
+    /**
+     * @return set of squares holding any piece
+     */
+    public long getOccupied() {
+        return occupied;
+    }
+
+    /**
+     * @return true if any piece is on the square
+     */
+    public boolean isOccupied(int square) {
+        return (occupied & bit(square)) != 0;
+    }
+
+    /**
+     * @return Zobrist key of the pieces on the board, updated with every add and remove
+     */
+    public long getKey() {
+        return key;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        Bitboard that = (Bitboard) o;
+        return Arrays.equals(pieces, that.pieces);
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(key);
+    }
+
+    @Override
+    public Bitboard clone() throws CloneNotSupportedException {
+        Bitboard clone = (Bitboard) super.clone();
+        clone.pieces = pieces.clone();
+        clone.teamOccupancy = teamOccupancy.clone();
+        return clone;
+    }
+}
@@ -1,8 +1,7 @@
 package chess;
 
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Objects;
 import static chess.EscapeSequences.*;
 
 /**
@@ -13,6 +12,8 @@ import static chess.EscapeSequences.*;
  */
 public class ChessBoard implements Cloneable {
     private ChessPiece[][] squares = new ChessPiece[8][8];
+    // Mirrors squares; transient so it is rebuilt lazily after deserialization
+    private transient Bitboard bitboard;
 
     public ChessBoard() {
 
@@ -25,7 +26,7 @@ public class ChessBoard implements Cloneable {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        squares[position.getRowIndex()][position.getColumnIndex()] = piece;
+        setSquare(position.getRowIndex(), position.getColumnIndex(), piece);
     }
 
     /**
@@ -49,6 +50,7 @@ public class ChessBoard implements Cloneable {
                 squares[i][j] = null;
             }
         }
+        bitboard = new Bitboard();
 
         ChessGame.TeamColor color;
         int index;
@@ -61,19 +63,19 @@ public class ChessBoard implements Cloneable {
                 color = ChessGame.TeamColor.BLACK;
                 index = 8;
             }
-            addPiece(new ChessPosition(index, 1), new ChessPiece(color, ChessPiece.PieceType.ROOK));
-            addPiece(new ChessPosition(index, 2), new ChessPiece(color, ChessPiece.PieceType.KNIGHT));
-            addPiece(new ChessPosition(index, 3), new ChessPiece(color, ChessPiece.PieceType.BISHOP));
-            addPiece(new ChessPosition(index, 4), new ChessPiece(color, ChessPiece.PieceType.QUEEN));
-            addPiece(new ChessPosition(index, 5), new ChessPiece(color, ChessPiece.PieceType.KING));
-            addPiece(new ChessPosition(index, 6), new ChessPiece(color, ChessPiece.PieceType.BISHOP));
-            addPiece(new ChessPosition(index, 7), new ChessPiece(color, ChessPiece.PieceType.KNIGHT));
-            addPiece(new ChessPosition(index, 8), new ChessPiece(color, ChessPiece.PieceType.ROOK));
+            addPiece(ChessPosition.of(index, 1), ChessPiece.of(color, ChessPiece.PieceType.ROOK));
+            addPiece(ChessPosition.of(index, 2), ChessPiece.of(color, ChessPiece.PieceType.KNIGHT));
+            addPiece(ChessPosition.of(index, 3), ChessPiece.of(color, ChessPiece.PieceType.BISHOP));
+            addPiece(ChessPosition.of(index, 4), ChessPiece.of(color, ChessPiece.PieceType.QUEEN));
+            addPiece(ChessPosition.of(index, 5), ChessPiece.of(color, ChessPiece.PieceType.KING));
+            addPiece(ChessPosition.of(index, 6), ChessPiece.of(color, ChessPiece.PieceType.BISHOP));
+            addPiece(ChessPosition.of(index, 7), ChessPiece.of(color, ChessPiece.PieceType.KNIGHT));
+            addPiece(ChessPosition.of(index, 8), ChessPiece.of(color, ChessPiece.PieceType.ROOK));
         }
 
         for (int i = 1; i < 9; i++) {
-            addPiece(new ChessPosition(2, i), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
-            addPiece(new ChessPosition(7, i), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+            addPiece(ChessPosition.of(2, i), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+            addPiece(ChessPosition.of(7, i), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
         }
     }
 
@@ -90,34 +92,170 @@ public class ChessBoard implements Cloneable {
         if (promotionType == null) {
             addPiece(endPosition, myPiece);
         } else {
-            addPiece(endPosition, new ChessPiece(myColor, promotionType));
+            addPiece(endPosition, ChessPiece.of(myColor, promotionType));
         }
 
         removePiece(startPosition);
     }
 
+    /**
+     * Makes a packed move in place, including the side effects of en passant and castling, and records what
+     * is needed to take it back with unmakeMove. The move's flags say which special move it is, so it must come
+     * from the legal move generator.
+     *
+     * @param move packed move to make, see Move
+     * @param undo record to overwrite with this move's undo information
+     */
+    void makeMove(int move, MoveUndo undo) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        ChessPiece myPiece = getPiece(from);
+        if (myPiece == null) {
+            throw new IllegalStateException("No piece found at " + Bitboard.toPosition(from));
+        }
+
+        undo.move = move;
+        undo.movedPiece = myPiece;
+        undo.capturedPiece = getPiece(to);
+        undo.capturedSquare = to;
+        undo.rookStart = -1;
+
+        if (Move.isEnPassant(move)) {
+            // The captured pawn sits beside the start square rather than on the end square
+            undo.capturedSquare = (from & ~7) | (to & 7);
+            undo.capturedPiece = getPiece(undo.capturedSquare);
+            setSquare(undo.capturedSquare, null);
+        } else if (Move.isCastle(move)) {
+            int rookStart = (to > from) ? from + 3 : from - 4;
+            ChessPiece rook = getPiece(rookStart);
+            if (rook != null) {
+                undo.rookStart = rookStart;
+                undo.rookEnd = (to > from) ? from + 1 : from - 1;
+                setSquare(undo.rookEnd, rook);
+                setSquare(rookStart, null);
+            }
+        }
+
+        ChessPiece.PieceType promotionType = Move.promotion(move);
+        setSquare(to, (promotionType == null) ? myPiece : ChessPiece.of(myPiece.getTeamColor(), promotionType));
+        setSquare(from, null);
+    }
+
+    /**
+     * Takes back a move made with makeMove(int, MoveUndo), restoring captured pieces and castled rooks
+     *
+     * @param undo record filled in when the move was made
+     */
+    void unmakeMove(MoveUndo undo) {
+        setSquare(Move.to(undo.move), null);
+        setSquare(Move.from(undo.move), undo.movedPiece);
+        if (undo.capturedPiece != null) {
+            setSquare(undo.capturedSquare, undo.capturedPiece);
+        }
+        if (undo.rookStart >= 0) {
+            setSquare(undo.rookStart, getPiece(undo.rookEnd));
+            setSquare(undo.rookEnd, null);
+        }
+    }
+
     public void removePiece(ChessPosition position) {
-        squares[position.getRowIndex()][position.getColumnIndex()] = null;
+        setSquare(position.getRowIndex(), position.getColumnIndex(), null);
+    }
+
+    /**
+     * Single write path for squares so the bitboard never drifts from the array
+     *
+     * @param rowIndex    0-based row
+     * @param columnIndex 0-based column
+     * @param piece       piece to place, or null to empty the square
+     */
+    private void setSquare(int rowIndex, int columnIndex, ChessPiece piece) {
+        ChessPiece previous = squares[rowIndex][columnIndex];
+        squares[rowIndex][columnIndex] = piece;
+        if (bitboard != null) {
+            int square = rowIndex * 8 + columnIndex;
+            if (previous != null) {
+                bitboard.remove(square, previous);
+            }
+            if (piece != null) {
+                bitboard.add(square, piece);
+            }
+        }
+    }
+
+    private ChessPiece getPiece(int square) {
+        return squares[square >>> 3][square & 7];
+    }
+
+    private void setSquare(int square, ChessPiece piece) {
+        setSquare(square >>> 3, square & 7, piece);
     }
 
     /**
-     * Finds the king of a given team
+     * Bitboard view of this board, kept in sync with every addPiece, removePiece and makeMove.
+     * Built on first use, which also covers boards populated by Gson without going through addPiece
+     *
+     * @return the live bitboard backing this board, callers must not modify it
+     */
+    Bitboard getBitboard() {
+        if (bitboard == null) {
+            bitboard = Bitboard.fromSquares(squares);
+        }
+        return bitboard;
+    }
+
+    /**
+     * Zobrist key of the pieces on the board, kept up to date by every change to the board. Side to move,
+     * castling rights and en passant are held by ChessGame, see ChessGame.getPositionKey.
+     *
+     * @return 64-bit key, equal for boards holding the same pieces on the same squares
+     */
+    public long getZobristKey() {
+        return getBitboard().getKey();
+    }
+
+    /**
+     * Finds the king of a given team, read straight off the king bitboard rather than searching the squares
      *
      * @param teamColor color of team
-     * @return position of king
+     * @return position of king, or null if the team has no king on the board
      */
     public ChessPosition findKing(ChessGame.TeamColor teamColor) {
-        for (int i = 1; i < 9; i++) {
-            for (int j = 1; j < 9; j++) {
-                ChessPosition position = new ChessPosition(i, j);
-                if (getPiece(position) != null) {
-                    if (getPiece(position).getPieceType() == ChessPiece.PieceType.KING && getPiece(position).getTeamColor() == teamColor) {
-                        return position;
-                    }
-                }
-            }
+        long king = getBitboard().getPieces(teamColor, ChessPiece.PieceType.KING);
+        if (king == 0) {
+            return null;
         }
-        return null;
+        return Bitboard.toPosition(Long.numberOfTrailingZeros(king));
+    }
+
+    /**
+     * Lists the squares holding a team's pieces. The team occupancy bitboard is kept up to date by every
+     * board change and serves as the piece list, so only live pieces are visited.
+     *
+     * @param teamColor color of team
+     * @return positions of the team's pieces, ordered from a1 to h8
+     */
+    public Collection<ChessPosition> getPiecePositions(ChessGame.TeamColor teamColor) {
+        long pieces = getBitboard().getOccupancy(teamColor);
+        Collection<ChessPosition> positions = new ArrayList<>(Long.bitCount(pieces));
+        while (pieces != 0) {
+            positions.add(Bitboard.toPosition(Long.numberOfTrailingZeros(pieces)));
+            pieces &= pieces - 1;
+        }
+        return positions;
+    }
+
+    /**
+     * Determines if any piece of a team could capture on the given square, looking outward from the square
+     * along knight, pawn, king and sliding patterns instead of generating the attacking team's moves
+     *
+     * @param position square that may be attacked
+     * @param attacker team whose pieces may be attacking
+     * @return true if the square is attacked
+     */
+    public boolean isSquareAttacked(ChessPosition position, ChessGame.TeamColor attacker) {
+        Bitboard bitboard = getBitboard();
+        return Attacks.isAttacked(bitboard, Bitboard.square(position), attacker, bitboard.getOccupied());
     }
 
     @Override
@@ -230,27 +368,25 @@ public class ChessBoard implements Cloneable {
             return false;
         }
         ChessBoard that = (ChessBoard) o;
-        return Objects.deepEquals(squares, that.squares);
+        return getBitboard().equals(that.getBitboard());
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(squares);
+        return Long.hashCode(getZobristKey());
     }
 
     @Override
     public ChessBoard clone() throws CloneNotSupportedException {
         ChessBoard clone = (ChessBoard) super.clone(); // Shallow copy
 
-        ChessPiece[][] cloneSquares = new ChessPiece[8][8];
+        // Pieces are immutable, so the copy shares them and only the arrays are duplicated
+        ChessPiece[][] cloneSquares = new ChessPiece[8][];
         for (int i = 0; i < 8; i++) {
-            for (int j = 0; j < 8; j++) {
-                if (squares[i][j] != null) {
-                    cloneSquares[i][j] = squares[i][j].clone();
-                }
-            }
+            cloneSquares[i] = squares[i].clone();
         }
         clone.squares = cloneSquares;
+        clone.bitboard = getBitboard().clone();
         return clone;
     }
 
@@ -0,0 +1,112 @@
+package chess;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Streams a ChessBoard to and from the JSON reflective Gson produces for it:
+ * {@code {"squares":[[{"pieceColor":"WHITE","type":"ROOK"},...],...]}}, eight rows from row 1 with null for
+ * empty squares. Pieces are read into the shared ChessPiece instances.
+ */
+public class ChessBoardAdapter extends TypeAdapter<ChessBoard> {
+
+    @Override
+    public void write(JsonWriter out, ChessBoard board) throws IOException {
+        if (board == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("squares");
+        out.beginArray();
+        for (int row = 1; row <= 8; row++) {
+            out.beginArray();
+            for (int column = 1; column <= 8; column++) {
+                writePiece(out, board.getPiece(ChessPosition.of(row, column)));
+            }
+            out.endArray();
+        }
+        out.endArray();
+        out.endObject();
+    }
+
+    @Override
+    public ChessBoard read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        ChessBoard board = new ChessBoard();
+        in.beginObject();
+        while (in.hasNext()) {
+            if (in.nextName().equals("squares") && in.peek() != JsonToken.NULL) {
+                readSquares(in, board);
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+        return board;
+    }
+
+    private static void readSquares(JsonReader in, ChessBoard board) throws IOException {
+        in.beginArray();
+        for (int row = 1; in.hasNext(); row++) {
+            checkInBoard(row, in);
+            in.beginArray();
+            for (int column = 1; in.hasNext(); column++) {
+                checkInBoard(column, in);
+                ChessPiece piece = readPiece(in);
+                if (piece != null) {
+                    board.addPiece(ChessPosition.of(row, column), piece);
+                }
+            }
+            in.endArray();
+        }
+        in.endArray();
+    }
+
+    private static void checkInBoard(int index, JsonReader in) {
+        if (index > 8) {
+            throw new JsonParseException("Chess board has more than 8 rows or columns at " + in.getPath());
+        }
+    }
+
+    static void writePiece(JsonWriter out, ChessPiece piece) throws IOException {
+        if (piece == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("pieceColor").value(piece.getTeamColor().name());
+        out.name("type").value(piece.getPieceType().name());
+        out.endObject();
+    }
+
+    static ChessPiece readPiece(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        ChessGame.TeamColor color = null;
+        ChessPiece.PieceType type = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "pieceColor" -> color = ChessGame.TeamColor.valueOf(in.nextString());
+                case "type" -> type = ChessPiece.PieceType.valueOf(in.nextString());
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        if (color == null || type == null) {
+            throw new IOException("Chess piece needs both pieceColor and type at " + in.getPath());
+        }
+        return ChessPiece.of(color, type);
+    }
+}
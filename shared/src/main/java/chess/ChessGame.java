@@ -1,5 +1,7 @@
 package chess;
 
+import com.google.gson.annotations.JsonAdapter;
+
 import java.util.ArrayList;
 import java.util.Collection;
 
@@ -12,24 +14,81 @@ import java.util.Collection;
 public class ChessGame {
     private TeamColor team;
     private ChessBoard board;
-    private ChessMove lastMove;
+    @JsonAdapter(LastMoveAdapter.class)
+    private int lastMove; // Packed, see Move, so making a move allocates nothing. JSON still holds a ChessMove.
     private boolean enPassantValid;
     private boolean whiteQueenCastle;
     private boolean whiteKingCastle;
     private boolean blackQueenCastle;
     private boolean blackKingCastle;
     private boolean gameOver = false;
+    private int halfmoveClock; // Plies since the last capture or pawn move, for the fifty-move rule
+    private int fullmoveNumber; // Starts at 1 and increases after each black move
+    private final transient MoveUndo scratchUndo = new MoveUndo();
+    private final transient LegalMoveGenerator moveGenerator = new LegalMoveGenerator();
+    private final transient MoveList scratchMoves = new MoveList();
 
     public ChessGame() {
-        team = TeamColor.WHITE;
-        board = new ChessBoard();
+        this(new ChessBoard());
         board.resetBoard();
-        lastMove = null;
+    }
+
+    /**
+     * Starts a game on the given board, white to move with all castling rights
+     *
+     * @param board board to play on, used as is
+     */
+    ChessGame(ChessBoard board) {
+        team = TeamColor.WHITE;
+        this.board = board;
+        lastMove = Move.NONE;
         enPassantValid = false;
         whiteQueenCastle = true;
         whiteKingCastle = true;
         blackQueenCastle = true;
         blackKingCastle = true;
+        halfmoveClock = 0;
+        fullmoveNumber = 1;
+    }
+
+    /**
+     * Copies another game's position and state, so the copy can be played on another thread without touching
+     * the original. Pieces and moves are immutable and shared, only the board arrays are duplicated.
+     *
+     * @param other game to copy
+     */
+    public ChessGame(ChessGame other) {
+        team = other.team;
+        try {
+            board = other.board.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new RuntimeException(e);
+        }
+        lastMove = other.lastMove;
+        enPassantValid = other.enPassantValid;
+        whiteQueenCastle = other.whiteQueenCastle;
+        whiteKingCastle = other.whiteKingCastle;
+        blackQueenCastle = other.blackQueenCastle;
+        blackKingCastle = other.blackKingCastle;
+        gameOver = other.gameOver;
+        halfmoveClock = other.halfmoveClock;
+        fullmoveNumber = other.fullmoveNumber;
+    }
+
+    /**
+     * @param fen position in Forsyth-Edwards Notation
+     * @return a new game in that position
+     * @throws IllegalArgumentException if the string is not valid FEN
+     */
+    public static ChessGame fromFen(String fen) {
+        return Fen.parse(fen);
+    }
+
+    /**
+     * @return this game's position in Forsyth-Edwards Notation
+     */
+    public String toFen() {
+        return Fen.toFen(this);
     }
 
     /**
@@ -50,7 +109,7 @@ public class ChessGame {
 
     /**
      * Gets all valid moves for a piece at the given location
-     * Checks if en passant or castle moves are possible
+     * Includes en passant and castle moves when they are possible
      *
      * @param startPosition the piece to get valid moves for
      * @return Set of valid moves for requested piece, or null if no piece at the startPosition
@@ -61,118 +120,119 @@ public class ChessGame {
             return null; // Return early if startPosition is empty
         }
 
-        Collection<ChessMove> validMoves = getStandardValidMoves(myPiece, startPosition);
-
-        if (lastMove != null && myPiece.getPieceType() == ChessPiece.PieceType.PAWN) {
-            checkEnPassant(validMoves, myPiece, startPosition);
-        }
-        if (myPiece.getPieceType() == ChessPiece.PieceType.KING && startPosition.getColumn() == 5) {
-            checkCastling(validMoves, startPosition);
+        generateMoves(myPiece.getTeamColor(), startPosition);
+        if (moveGenerator.foundEnPassant()) {
+            enPassantValid = true;
         }
-
+        Collection<ChessMove> validMoves = new ArrayList<>(scratchMoves.size());
+        scratchMoves.addTo(validMoves);
         return validMoves;
     }
 
     /**
-     * Unlike validMoves, this only validated normal moves: no en passant or castling moves
-     * Filter out invalid moves from pieceMoves methods, which returns all possible moves even if they are invalid
-     *
-     * @param myPiece       ChessPiece object up for movement
-     * @param startPosition starting ChessPosition of ChessPiece up for movement
-     * @return ArrayList of valid ChessMoves
-     */
-    private Collection<ChessMove> getStandardValidMoves(ChessPiece myPiece, ChessPosition startPosition) {
-        Collection<ChessMove> possibleMoves = myPiece.pieceMoves(board, startPosition);
-        Collection<ChessMove> validMoves = new ArrayList<>();
-        TeamColor teamColor = myPiece.getTeamColor();
-
-        for (ChessMove move : possibleMoves) {
-            if (doesMoveStopCheck(teamColor, move)) {
-                validMoves.add(move);
-            }
-        }
-        return validMoves;
+     * @return the most recent move, used to decide whether en passant is possible
+     */
+    ChessMove getLastMove() {
+        return (lastMove == Move.NONE) ? null : Move.toChessMove(lastMove);
     }
 
     /**
-     * Reviews the current board layout and previous move made to verify if en passant move is valid
-     *
-     * @param validMoves    add valid en passant moves to this list
-     * @param myPiece       ChessPiece object up for movement
-     * @param startPosition starting ChessPosition of ChessPiece up for movement
+     * @return the most recent move packed as in Move, or Move.NONE, for the move generator
      */
-    private void checkEnPassant(Collection<ChessMove> validMoves, ChessPiece myPiece, ChessPosition startPosition) {
-        ChessPosition lastStartPos = lastMove.getStartPosition();
-        ChessPosition lastEndPos = lastMove.getEndPosition();
-        ChessPiece lastPiece = board.getPiece(lastEndPos);
-
-        // Last piece moved must also be a pawn
-        if (lastPiece == null || lastPiece.getPieceType() != ChessPiece.PieceType.PAWN) {
-            return;
-        }
+    int getLastPackedMove() {
+        return lastMove;
+    }
 
-        if (Math.abs(lastStartPos.getRow() - lastEndPos.getRow()) == 2 && // Pawn moved two squares
-                startPosition.getRow() == lastEndPos.getRow() && // Pawns are next to each other in the same row
-                Math.abs(startPosition.getColumn() - lastEndPos.getColumn()) == 1) { // Pawns are in directly adjacent columns
+    /**
+     * Replaces the last move, which is all en passant looks at, used when loading a position
+     *
+     * @param lastMove the move that led to the current position, or null
+     */
+    void setLastMove(ChessMove lastMove) {
+        this.lastMove = packLastMove(lastMove);
+    }
 
-            int direction = (myPiece.getTeamColor() == TeamColor.WHITE) ? 1 : -1;
-            enPassantValid = true;
-            validMoves.add(new ChessMove(startPosition, new ChessPosition(startPosition.getRow() + direction,
-                    lastEndPos.getColumn()), null));
+    /**
+     * @return the move packed without flags, or Move.NONE for null or a move missing a position
+     */
+    static int packLastMove(ChessMove move) {
+        if (move == null || move.getStartPosition() == null || move.getEndPosition() == null) {
+            return Move.NONE;
         }
+        return Move.encode(Bitboard.square(move.getStartPosition()), Bitboard.square(move.getEndPosition()),
+                move.getPromotionPiece(), 0);
     }
 
     /**
-     * Adds move to validMoves if any castling moves are possible for startingPiece
-     *
-     * @param validMoves    add valid castling moves to this ArrayList
-     * @param startPosition starting ChessPosition of ChessPiece up for movement
+     * @return true if the last validMoves call found an en passant capture
      */
-    private void checkCastling(Collection<ChessMove> validMoves, ChessPosition startPosition) {
+    boolean isEnPassantValid() {
+        return enPassantValid;
+    }
 
-        // Check king-side castling
-        if (canCastle(startPosition, 1, whiteKingCastle, blackKingCastle)) {
-            validMoves.add(new ChessMove(startPosition, new ChessPosition(startPosition.getRow(),
-                    startPosition.getColumn() + 2), null));
-        }
+    void setEnPassantValid(boolean enPassantValid) {
+        this.enPassantValid = enPassantValid;
+    }
 
-        // Check queen-side castling
-        if (canCastle(startPosition, -1, whiteQueenCastle, blackQueenCastle)) {
-            validMoves.add(new ChessMove(startPosition, new ChessPosition(startPosition.getRow(),
-                    startPosition.getColumn() - 2), null));
+    /**
+     * @param teamColor team to check
+     * @param kingSide  true for king side, false for queen side
+     * @return false once the king or that side's rook has moved
+     */
+    boolean hasCastlingRight(TeamColor teamColor, boolean kingSide) {
+        if (teamColor == TeamColor.WHITE) {
+            return kingSide ? whiteKingCastle : whiteQueenCastle;
         }
+        return kingSide ? blackKingCastle : blackQueenCastle;
     }
 
     /**
-     * Abstract method for checking if castle is valid
-     *
-     * @param kingPos     currentPosition, piece must be king (checked previously)
-     * @param direction   positive (right) for king side, negative (left) for queen side
-     * @param whiteCastle false if castle move has been invalidated for white by previous moves
-     * @param blackCastle false if castle move has been invalidated for black by previous moves
-     * @return true if castle move valid to be added to validMoves
-     */
-    private boolean canCastle(ChessPosition kingPos, int direction, boolean whiteCastle, boolean blackCastle) {
-        int[] offsets = (direction == 1) ? new int[]{1, 2} : new int[]{1, 2, 3};
-        TeamColor teamColor = board.getPiece(kingPos).getTeamColor();
-
-        // Check if path is clear
-        for (int offset : offsets) {
-            if (board.getPiece(new ChessPosition(kingPos.getRow(),
-                    kingPos.getColumn() + direction * offset)) != null) {
-                return false;
+     * @param teamColor team the right belongs to
+     * @param kingSide  true for king side, false for queen side
+     * @param allowed   whether that castle is still allowed
+     */
+    void setCastlingRight(TeamColor teamColor, boolean kingSide, boolean allowed) {
+        if (teamColor == TeamColor.WHITE) {
+            if (kingSide) {
+                whiteKingCastle = allowed;
+            } else {
+                whiteQueenCastle = allowed;
             }
+        } else if (kingSide) {
+            blackKingCastle = allowed;
+        } else {
+            blackQueenCastle = allowed;
         }
+    }
 
-        // Check if the king remains safe during castling
-        for (int i = 0; i < 3; i++) {
-            if (!doesMoveStopCheck(teamColor, new ChessMove(kingPos, new ChessPosition(kingPos.getRow(),
-                    kingPos.getColumn() + direction * i), null))) {
-                return false;
-            }
-        }
+    /**
+     * @return plies since the last capture or pawn move
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * @return number of the current full move, starting at 1 and increasing after each black move
+     */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
 
-        return (teamColor == TeamColor.WHITE) ? whiteCastle : blackCastle;
+    /**
+     * @return number of plies played to reach this position from fullmove 1 with white to move
+     */
+    public int getPlyCount() {
+        return 2 * (fullmoveNumber - 1) + (team == TeamColor.BLACK ? 1 : 0);
+    }
+
+    /**
+     * @param halfmoveClock  plies since the last capture or pawn move
+     * @param fullmoveNumber number of the current full move
+     */
+    void setMoveCounters(int halfmoveClock, int fullmoveNumber) {
+        this.halfmoveClock = halfmoveClock;
+        this.fullmoveNumber = fullmoveNumber;
     }
 
     /**
@@ -182,31 +242,73 @@ public class ChessGame {
      * @throws InvalidMoveException if move is invalid
      */
     public void makeMove(ChessMove move) throws InvalidMoveException {
-        validateMove(move);
+        makeMove(validateMove(move), scratchUndo);
+    }
 
-        ChessPosition startPosition = move.getStartPosition();
-        ChessPosition endPosition = move.getEndPosition();
+    /**
+     * Makes an already validated move in place, updating board and game state, then switches team
+     *
+     * @param move packed move from the legal move generator, see Move
+     * @param undo record to overwrite with what is needed to take the move back
+     */
+    void makeMove(int move, MoveUndo undo) {
+        ChessPosition startPosition = Bitboard.toPosition(Move.from(move));
+        ChessPosition endPosition = Bitboard.toPosition(Move.to(move));
         ChessPiece myPiece = board.getPiece(startPosition);
-        ChessPiece.PieceType myType = myPiece.getPieceType();
 
-        // Update ChessBoard and ChessGame information for special moves
-        handleSpecialMoves(myType, startPosition, endPosition);
-        updateCastlingRights(myType, myPiece.getTeamColor(), startPosition, endPosition);
+        undo.team = team;
+        undo.lastMove = lastMove;
+        undo.halfmoveClock = halfmoveClock;
+        undo.fullmoveNumber = fullmoveNumber;
+        undo.enPassantValid = enPassantValid;
+        undo.whiteQueenCastle = whiteQueenCastle;
+        undo.whiteKingCastle = whiteKingCastle;
+        undo.blackQueenCastle = blackQueenCastle;
+        undo.blackKingCastle = blackKingCastle;
+
+        // Update ChessGame information, the board handles en passant captures and castling rooks
+        updateCastlingRights(myPiece.getPieceType(), myPiece.getTeamColor(), startPosition, endPosition);
+        clearCapturedRookCastling(endPosition);
         enPassantValid = false;
         lastMove = move;
+        boolean capture = Move.isEnPassant(move) || board.getPiece(endPosition) != null;
+        halfmoveClock = (capture || myPiece.getPieceType() == ChessPiece.PieceType.PAWN) ? 0 : halfmoveClock + 1;
+        if (team == TeamColor.BLACK) {
+            fullmoveNumber++;
+        }
 
-        board.makeMove(move);
+        board.makeMove(move, undo);
 
         team = (team == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
     }
 
+    /**
+     * Takes back a move made with makeMove(int, MoveUndo), restoring board and game state
+     *
+     * @param undo record filled in when the move was made
+     */
+    void unmakeMove(MoveUndo undo) {
+        board.unmakeMove(undo);
+
+        team = undo.team;
+        lastMove = undo.lastMove;
+        halfmoveClock = undo.halfmoveClock;
+        fullmoveNumber = undo.fullmoveNumber;
+        enPassantValid = undo.enPassantValid;
+        whiteQueenCastle = undo.whiteQueenCastle;
+        whiteKingCastle = undo.whiteKingCastle;
+        blackQueenCastle = undo.blackQueenCastle;
+        blackKingCastle = undo.blackKingCastle;
+    }
+
     /**
      * Throws variety of errors when client attempts to make invalid move
      *
      * @param move ChessMove needing validation
+     * @return the move packed with its en passant, castling and two-square advance flags
      * @throws InvalidMoveException wrong turn, invalid move, no piece at indicated starting ChessPosition
      */
-    private void validateMove(ChessMove move) throws InvalidMoveException {
+    private int validateMove(ChessMove move) throws InvalidMoveException {
         ChessPosition startPosition = move.getStartPosition();
         ChessPiece myPiece = board.getPiece(startPosition);
 
@@ -219,36 +321,12 @@ public class ChessGame {
         if (myPiece.getTeamColor() != team) {
             throw new InvalidMoveException("That is not your piece");
         }
-        if (!validMoves(startPosition).contains(move)) {
+        generateMoves(team, startPosition);
+        int packedMove = scratchMoves.find(move);
+        if (packedMove == Move.NONE) {
             throw new InvalidMoveException("Invalid move");
         }
-    }
-
-    /**
-     * If en passant move was made, capture the enemy pawn
-     * If castle move was made, move the rook as well
-     *
-     * @param myType        PieceType of piece being moved
-     * @param startPosition ChessPosition being moved from
-     * @param endPosition   ChessPosition being moved to
-     */
-    private void handleSpecialMoves(ChessPiece.PieceType myType, ChessPosition startPosition, ChessPosition endPosition) {
-        int startRow = startPosition.getRow();
-        int startColumn = startPosition.getColumn();
-        int endColumn = endPosition.getColumn();
-
-        if (myType == ChessPiece.PieceType.PAWN && enPassantValid &&
-                board.getPiece(endPosition) == null && // Pawn is moving into empty space (not capturing directly)
-                startColumn != endColumn) { // Pawn is not moving straight (only possible when capturing)
-            board.removePiece(new ChessPosition(startRow, endColumn));
-        }
-
-        if (myType == ChessPiece.PieceType.KING && Math.abs(startColumn - endColumn) == 2) { // King can only move two spaces when castling
-            int rookStartColumn = (startColumn > endColumn) ? 1 : 8; // Find correct rook based on whether king is moving left or right
-            int rookEndColumn = (startColumn > endColumn) ? 4 : 6; // Move rook to correct position based on whether king is moving left or right
-            board.makeMove(new ChessMove(new ChessPosition(startRow, rookStartColumn),
-                    new ChessPosition(startRow, rookEndColumn), null));
-        }
+        return packedMove;
     }
 
     /**
@@ -290,53 +368,45 @@ public class ChessGame {
     }
 
     /**
-     * Determines if the given team is in check
+     * A rook captured on its home square takes its side's castling right with it. Clearing the flag here, rather
+     * than relying on the generator finding no rook, keeps the position key and stored games free of stale rights.
      *
-     * @param teamColor which team to check for check
-     * @return True if the specified team is in check
+     * @param endPosition square the move lands on
      */
-    public boolean isInCheck(TeamColor teamColor) {
-        ChessPosition kingPosition = board.findKing(teamColor);
-        return canAnyMoveCapturePosition(teamColor, kingPosition);
-    }
-
-    /**
-     * Iterates through entire board to check if any enemy pieces can capture piece in targetPosition
-     *
-     * @param teamColor      Color of ChessPiece up for capture
-     * @param targetPosition ChessPosition of ChessPiece up for capture
-     * @return True if ChessPiece in targetPosition can be captured
-     */
-    private boolean canAnyMoveCapturePosition(TeamColor teamColor, ChessPosition targetPosition) {
-        for (int i = 1; i < 9; i++) {
-            for (int j = 1; j < 9; j++) {
-                ChessPosition position = new ChessPosition(i, j);
-                ChessPiece myPiece = board.getPiece(position);
-                if (isOppositeTeam(myPiece, teamColor)) {
-                    if (canPieceCapturePosition(myPiece, position, targetPosition)) {
-                        return true;
-                    }
-                }
+    private void clearCapturedRookCastling(ChessPosition endPosition) {
+        int row = endPosition.getRow();
+        int column = endPosition.getColumn();
+        if (column != 1 && column != 8) {
+            return;
+        }
+        if (row == 1) {
+            if (column == 8) {
+                whiteKingCastle = false;
+            } else {
+                whiteQueenCastle = false;
+            }
+        } else if (row == 8) {
+            if (column == 8) {
+                blackKingCastle = false;
+            } else {
+                blackQueenCastle = false;
             }
         }
-        return false;
     }
 
     /**
-     * Checks if a single piece can move to capture piece in targetPosition
+     * Determines if the given team is in check
      *
-     * @param piece  ChessPiece that may capture
-     * @param from   starting ChessPosition of ChessPiece that may capture
-     * @param target ChessPosition of ChessPiece that may be captured
-     * @return true if piece can move to targetPosition
-     */
-    private boolean canPieceCapturePosition(ChessPiece piece, ChessPosition from, ChessPosition target) {
-        for (ChessMove move : piece.pieceMoves(board, from)) {
-            if (move.getEndPosition().equals(target)) {
-                return true;
-            }
+     * @param teamColor which team to check for check
+     * @return True if the specified team is in check
+     */
+    public boolean isInCheck(TeamColor teamColor) {
+        ChessPosition kingPosition = board.findKing(teamColor);
+        if (kingPosition == null) {
+            return false;
         }
-        return false;
+        TeamColor enemyColor = (teamColor == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+        return board.isSquareAttacked(kingPosition, enemyColor);
     }
 
     /**
@@ -346,60 +416,13 @@ public class ChessGame {
      * @return True if the specified team is in checkmate
      */
     public boolean isInCheckmate(TeamColor teamColor) {
-        if (!isInCheck(teamColor)) {
-            return false;
-        }
-        boolean checkmate = !canKingEscape(teamColor) && !canOtherPieceSaveKing(teamColor);
+        boolean checkmate = !hasValidMoves(teamColor) && moveGenerator.isInCheck();
         if (checkmate) {
             endGame();
         }
         return checkmate;
     }
 
-    private boolean canKingEscape(TeamColor teamColor) {
-        ChessPosition kingPosition = board.findKing(teamColor);
-        ChessPiece king = board.getPiece(kingPosition);
-        Collection<ChessMove> kingMoves = king.pieceMoves(board, kingPosition);
-        return canAnyMoveSaveKing(teamColor, kingMoves);
-    }
-
-    private boolean canOtherPieceSaveKing(TeamColor teamColor) {
-        for (int i = 1; i < 9; i++) {
-            for (int j = 1; j < 9; j++) {
-                ChessPosition position = new ChessPosition(i, j);
-                ChessPiece myPiece = board.getPiece(position);
-                if (isSameTeam(myPiece, teamColor)) {
-                    Collection<ChessMove> possibleMoves = myPiece.pieceMoves(board, position);
-                    if (canAnyMoveSaveKing(teamColor, possibleMoves)) {
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
-    }
-
-    private boolean canAnyMoveSaveKing(TeamColor teamColor, Collection<ChessMove> moves) {
-        for (ChessMove move : moves) {
-            if (doesMoveStopCheck(teamColor, move)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    private boolean doesMoveStopCheck(TeamColor teamColor, ChessMove move) {
-        try {
-            ChessBoard copiedBoard = board.clone();
-            ChessGame copiedGame = new ChessGame();
-            copiedGame.setBoard(copiedBoard);
-            copiedBoard.makeMove(move);
-            return !copiedGame.isInCheck(teamColor);
-        } catch (CloneNotSupportedException e) {
-            throw new RuntimeException(e);
-        }
-    }
-
     /**
      * Determines if the given team is in stalemate, which here is defined as having
      * no valid moves
@@ -408,41 +431,85 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
-        if (isInCheck(teamColor)) {
-            return false;
-        }
-        boolean stalemate = !hasValidMoves(teamColor);
+        boolean stalemate = !hasValidMoves(teamColor) && !moveGenerator.isInCheck();
         if (stalemate) {
             endGame();
         }
         return stalemate;
     }
 
+    /**
+     * Generates every legal move for the team in a single pass, which also records whether it is in check
+     *
+     * @param teamColor team to generate moves for
+     * @return true if the team has at least one legal move
+     */
     private boolean hasValidMoves(TeamColor teamColor) {
-        for (int i = 1; i < 9; i++) {
-            for (int j = 1; j < 9; j++) {
-                ChessPosition currentPosition = new ChessPosition(i, j);
-                ChessPiece currentPiece = board.getPiece(currentPosition);
-                if (isSameTeam(currentPiece, teamColor) && !validMoves(currentPosition).isEmpty()) {
-                    return true; // If any valid move exists, the team is not in stalemate
-                }
-            }
-        }
-        return false; // Stalemate if no valid moves exist
+        scratchMoves.clear();
+        moveGenerator.generate(this, teamColor, -1L, scratchMoves);
+        return !scratchMoves.isEmpty();
+    }
+
+    /**
+     * Refills the reusable move list with the legal moves of the piece at a position
+     */
+    private void generateMoves(TeamColor teamColor, ChessPosition startPosition) {
+        scratchMoves.clear();
+        moveGenerator.generate(this, teamColor, Bitboard.bit(Bitboard.square(startPosition)), scratchMoves);
     }
 
-    private boolean isSameTeam(ChessPiece piece, TeamColor teamColor) {
-        if (piece != null) {
-            return piece.getTeamColor() == teamColor;
+    /**
+     * Zobrist key of the full position: pieces, side to move, castling rights and a capturable en passant pawn.
+     * The piece part is maintained incrementally by the board as moves are made and taken back, the rest is a
+     * few XORs over this game's state, so reading the key never scans the board.
+     *
+     * @return 64-bit key, equal for games in the same position
+     */
+    public long getPositionKey() {
+        long key = board.getZobristKey();
+        if (team == TeamColor.BLACK) {
+            key ^= Zobrist.blackToMove();
         }
-        return false;
+        if (whiteKingCastle) {
+            key ^= Zobrist.castling(TeamColor.WHITE, true);
+        }
+        if (whiteQueenCastle) {
+            key ^= Zobrist.castling(TeamColor.WHITE, false);
+        }
+        if (blackKingCastle) {
+            key ^= Zobrist.castling(TeamColor.BLACK, true);
+        }
+        if (blackQueenCastle) {
+            key ^= Zobrist.castling(TeamColor.BLACK, false);
+        }
+        int enPassantColumn = enPassantColumn();
+        if (enPassantColumn > 0) {
+            key ^= Zobrist.enPassant(enPassantColumn);
+        }
+        return key;
     }
 
-    private boolean isOppositeTeam(ChessPiece piece, TeamColor teamColor) {
-        if (piece != null) {
-            return piece.getTeamColor() != teamColor;
+    /**
+     * Only counts en passant when a pawn of the side to move stands ready to capture, so positions reached with
+     * and without a harmless two-square advance share a key
+     *
+     * @return column of the pawn that can be captured en passant, or 0 if there is none
+     */
+    private int enPassantColumn() {
+        if (lastMove == Move.NONE) {
+            return 0;
+        }
+        int lastStart = Move.from(lastMove);
+        int lastEnd = Move.to(lastMove);
+        TeamColor enemyColor = (team == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+        Bitboard bitboard = board.getBitboard();
+        if (Math.abs(lastStart - lastEnd) != 16
+                || (bitboard.getPieces(enemyColor, ChessPiece.PieceType.PAWN) & Bitboard.bit(lastEnd)) == 0) {
+            return 0;
         }
-        return false;
+        int target = (lastStart + lastEnd) / 2;
+        long capturers = Attacks.pawnAttacks(enemyColor, target) & bitboard.getPieces(team, ChessPiece.PieceType.PAWN);
+        return (capturers == 0) ? 0 : Bitboard.columnOf(target);
     }
 
     /**
@@ -476,12 +543,14 @@ public class ChessGame {
         return "ChessGame{" +
                 "\nteam=" + team +
                 ", \nboard=\n" + board.toString() +
-                ", \nlastMove=" + lastMove +
+                ", \nlastMove=" + getLastMove() +
                 ", \nenPassantValid=" + enPassantValid +
                 ", \nwhiteQueenCastle=" + whiteQueenCastle +
                 ", \nwhiteKingCastle=" + whiteKingCastle +
                 ", \nblackQueenCastle=" + blackQueenCastle +
                 ", \nblackKingCastle=" + blackKingCastle +
+                ", \nhalfmoveClock=" + halfmoveClock +
+                ", \nfullmoveNumber=" + fullmoveNumber +
                 '}';
     }
 
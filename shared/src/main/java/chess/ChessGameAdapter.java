@@ -0,0 +1,163 @@
+package chess;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Streams a ChessGame to and from the same JSON reflective Gson produces for it, field for field and in
+ * declaration order, so stored games and messages read the same either way. Fields missing from the input
+ * keep the values a new ChessGame starts with.
+ */
+public class ChessGameAdapter extends TypeAdapter<ChessGame> {
+    private final ChessBoardAdapter boardAdapter = new ChessBoardAdapter();
+
+    @Override
+    public void write(JsonWriter out, ChessGame game) throws IOException {
+        if (game == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("team");
+        writeEnum(out, game.getTeamTurn());
+        out.name("board");
+        boardAdapter.write(out, game.getBoard());
+        out.name("lastMove");
+        writeMove(out, game.getLastMove());
+        out.name("enPassantValid").value(game.isEnPassantValid());
+        out.name("whiteQueenCastle").value(game.hasCastlingRight(ChessGame.TeamColor.WHITE, false));
+        out.name("whiteKingCastle").value(game.hasCastlingRight(ChessGame.TeamColor.WHITE, true));
+        out.name("blackQueenCastle").value(game.hasCastlingRight(ChessGame.TeamColor.BLACK, false));
+        out.name("blackKingCastle").value(game.hasCastlingRight(ChessGame.TeamColor.BLACK, true));
+        out.name("gameOver").value(game.isGameOver());
+        out.name("halfmoveClock").value(game.getHalfmoveClock());
+        out.name("fullmoveNumber").value(game.getFullmoveNumber());
+        out.endObject();
+    }
+
+    @Override
+    public ChessGame read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        ChessGame game = new ChessGame(new ChessBoard());
+        boolean boardRead = false;
+        int halfmoveClock = game.getHalfmoveClock();
+        int fullmoveNumber = game.getFullmoveNumber();
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL && !name.equals("board") && !name.equals("lastMove")) {
+                in.skipValue(); // Reflective Gson leaves the field at its default for a null primitive
+                continue;
+            }
+            switch (name) {
+                case "team" -> game.setTeamTurn(ChessGame.TeamColor.valueOf(in.nextString()));
+                case "board" -> {
+                    game.setBoard(boardAdapter.read(in));
+                    boardRead = true;
+                }
+                case "lastMove" -> game.setLastMove(readMove(in));
+                case "enPassantValid" -> game.setEnPassantValid(in.nextBoolean());
+                case "whiteQueenCastle" -> game.setCastlingRight(ChessGame.TeamColor.WHITE, false, in.nextBoolean());
+                case "whiteKingCastle" -> game.setCastlingRight(ChessGame.TeamColor.WHITE, true, in.nextBoolean());
+                case "blackQueenCastle" -> game.setCastlingRight(ChessGame.TeamColor.BLACK, false, in.nextBoolean());
+                case "blackKingCastle" -> game.setCastlingRight(ChessGame.TeamColor.BLACK, true, in.nextBoolean());
+                case "gameOver" -> {
+                    if (in.nextBoolean()) {
+                        game.endGame();
+                    }
+                }
+                case "halfmoveClock" -> halfmoveClock = in.nextInt();
+                case "fullmoveNumber" -> fullmoveNumber = in.nextInt();
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        if (!boardRead) {
+            game.getBoard().resetBoard();
+        }
+        game.setMoveCounters(halfmoveClock, fullmoveNumber);
+        return game;
+    }
+
+    static void writeMove(JsonWriter out, ChessMove move) throws IOException {
+        if (move == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("startPosition");
+        writePosition(out, move.getStartPosition());
+        out.name("endPosition");
+        writePosition(out, move.getEndPosition());
+        out.name("promotionPiece");
+        writeEnum(out, move.getPromotionPiece());
+        out.endObject();
+    }
+
+    static ChessMove readMove(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        ChessPosition start = null;
+        ChessPosition end = null;
+        ChessPiece.PieceType promotion = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "startPosition" -> start = readPosition(in);
+                case "endPosition" -> end = readPosition(in);
+                case "promotionPiece" -> promotion = ChessPiece.PieceType.valueOf(in.nextString());
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return new ChessMove(start, end, promotion);
+    }
+
+    private static void writePosition(JsonWriter out, ChessPosition position) throws IOException {
+        if (position == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("row").value(position.getRow());
+        out.name("col").value(position.getColumn());
+        out.endObject();
+    }
+
+    private static ChessPosition readPosition(JsonReader in) throws IOException {
+        int row = 0;
+        int column = 0;
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "row" -> row = in.nextInt();
+                case "col" -> column = in.nextInt();
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return ChessPosition.of(row, column);
+    }
+
+    private static void writeEnum(JsonWriter out, Enum<?> value) throws IOException {
+        if (value == null) {
+            out.nullValue();
+        } else {
+            out.value(value.name());
+        }
+    }
+}
@@ -10,6 +10,17 @@ import java.util.Objects;
  * signature of the existing methods.
  */
 public class ChessPiece implements Cloneable {
+    // Shared instances for the 12 colored pieces, indexed [TeamColor ordinal][PieceType ordinal]
+    private static final ChessPiece[][] PIECES = new ChessPiece[2][6];
+
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                PIECES[color.ordinal()][type.ordinal()] = new ChessPiece(color, type);
+            }
+        }
+    }
+
     private final ChessGame.TeamColor pieceColor;
     private final ChessPiece.PieceType type;
 
@@ -18,6 +29,18 @@ public class ChessPiece implements Cloneable {
         this.type = type;
     }
 
+    /**
+     * Returns the shared instance for a colored piece instead of allocating a new one. Pieces are immutable
+     * and compare by value, so shared and constructed instances are interchangeable.
+     *
+     * @param pieceColor team of the piece
+     * @param type       type of the piece
+     * @return the shared piece
+     */
+    public static ChessPiece of(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
+        return PIECES[pieceColor.ordinal()][type.ordinal()];
+    }
+
     /**
      * @return Which team this chess piece belongs to
      */
@@ -40,16 +63,16 @@ public class ChessPiece implements Cloneable {
      * @return Collection of valid moves
      */
     public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
-        PieceMovesCalculator movesCalculator = switch (type) {
-            case KING -> new KingMovesCalculator();
-            case QUEEN -> new QueenMovesCalculator();
-            case BISHOP -> new BishopMovesCalculator();
-            case KNIGHT -> new KnightMovesCalculator();
-            case ROOK -> new RookMovesCalculator();
-            case PAWN -> new PawnMovesCalculator();
-        };
+        return PieceMovesCalculator.forType(type).pieceMoves(board, myPosition);
+    }
 
-        return movesCalculator.pieceMoves(board, myPosition);
+    /**
+     * Same as pieceMoves(ChessBoard, ChessPosition), but appends into a caller-supplied collection
+     *
+     * @param moves collection the moves are appended to
+     */
+    public void pieceMoves(ChessBoard board, ChessPosition myPosition, Collection<ChessMove> moves) {
+        PieceMovesCalculator.forType(type).pieceMoves(board, myPosition, moves);
     }
 
     @Override
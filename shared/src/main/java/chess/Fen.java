@@ -0,0 +1,263 @@
+package chess;
+
+/**
+ * Reads and writes Forsyth-Edwards Notation, the standard one-line description of a chess position:
+ * piece placement, side to move, castling rights, en passant target square, halfmove clock and fullmove number.
+ * For example the starting position is {@code rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1}.
+ * <p>
+ * The parser walks the string once by index and places shared piece and position instances, so loading a
+ * position allocates little more than the game itself.
+ */
+public class Fen {
+    public static final String STARTING_POSITION = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    /**
+     * Builds a game from a FEN string. The move counters may be left off, as many published positions do,
+     * and then default to 0 and 1.
+     * <p>
+     * ChessGame tracks en passant through the last move, so an en passant target square is loaded as the
+     * two-square pawn advance across it.
+     *
+     * @param fen position in FEN
+     * @return a new game in that position
+     * @throws IllegalArgumentException if the string is not valid FEN
+     */
+    public static ChessGame parse(String fen) {
+        ChessBoard board = new ChessBoard();
+        ChessGame game = new ChessGame(board);
+
+        // Piece placement, from a8 across each row and down to h1
+        int index = 0;
+        int row = 8;
+        int column = 1;
+        while (index < fen.length() && fen.charAt(index) != ' ') {
+            char symbol = fen.charAt(index++);
+            if (symbol == '/') {
+                if (column != 9) {
+                    throw invalid(fen, "row " + row + " does not have 8 squares");
+                }
+                row--;
+                column = 1;
+            } else if (symbol >= '1' && symbol <= '8') {
+                column += symbol - '0';
+            } else {
+                if (row < 1 || column > 8) {
+                    throw invalid(fen, "too many squares");
+                }
+                board.addPiece(ChessPosition.of(row, column++), pieceFor(symbol, fen));
+            }
+            if (column > 9) {
+                throw invalid(fen, "row " + row + " has more than 8 squares");
+            }
+        }
+        if (row != 1 || column != 9) {
+            throw invalid(fen, "piece placement does not cover 64 squares");
+        }
+
+        // Side to move
+        index = skipSpace(fen, index);
+        if (index >= fen.length()) {
+            throw invalid(fen, "missing side to move");
+        }
+        switch (fen.charAt(index++)) {
+            case 'w' -> game.setTeamTurn(ChessGame.TeamColor.WHITE);
+            case 'b' -> game.setTeamTurn(ChessGame.TeamColor.BLACK);
+            default -> throw invalid(fen, "side to move must be w or b");
+        }
+
+        // Castling rights
+        index = skipSpace(fen, index);
+        game.setCastlingRight(ChessGame.TeamColor.WHITE, true, false);
+        game.setCastlingRight(ChessGame.TeamColor.WHITE, false, false);
+        game.setCastlingRight(ChessGame.TeamColor.BLACK, true, false);
+        game.setCastlingRight(ChessGame.TeamColor.BLACK, false, false);
+        if (index < fen.length() && fen.charAt(index) == '-') {
+            index++;
+        } else {
+            while (index < fen.length() && fen.charAt(index) != ' ') {
+                switch (fen.charAt(index++)) {
+                    case 'K' -> game.setCastlingRight(ChessGame.TeamColor.WHITE, true, true);
+                    case 'Q' -> game.setCastlingRight(ChessGame.TeamColor.WHITE, false, true);
+                    case 'k' -> game.setCastlingRight(ChessGame.TeamColor.BLACK, true, true);
+                    case 'q' -> game.setCastlingRight(ChessGame.TeamColor.BLACK, false, true);
+                    default -> throw invalid(fen, "castling rights must be - or some of KQkq");
+                }
+            }
+        }
+
+        // En passant target square
+        index = skipSpace(fen, index);
+        if (index < fen.length() && fen.charAt(index) == '-') {
+            index++;
+        } else if (index < fen.length()) {
+            if (index + 1 >= fen.length()) {
+                throw invalid(fen, "en passant target must be - or a square");
+            }
+            int targetColumn = fen.charAt(index) - 'a' + 1;
+            int targetRow = fen.charAt(index + 1) - '0';
+            index += 2;
+            if (targetColumn < 1 || targetColumn > 8 || (targetRow != 3 && targetRow != 6)) {
+                throw invalid(fen, "en passant target must be a square on row 3 or 6");
+            }
+            int step = (targetRow == 3) ? 1 : -1; // Row 3 means a white pawn just advanced
+            game.setLastMove(new ChessMove(ChessPosition.of(targetRow - step, targetColumn),
+                    ChessPosition.of(targetRow + step, targetColumn), null));
+        }
+
+        // Move counters, both optional
+        int halfmoveClock = 0;
+        int fullmoveNumber = 1;
+        index = skipSpace(fen, index);
+        if (index < fen.length()) {
+            int end = nextSpace(fen, index);
+            halfmoveClock = parseCounter(fen, index, end);
+            index = skipSpace(fen, end);
+            if (index < fen.length()) {
+                end = nextSpace(fen, index);
+                fullmoveNumber = parseCounter(fen, index, end);
+                index = end;
+            }
+        }
+        if (skipSpace(fen, index) < fen.length()) {
+            throw invalid(fen, "unexpected text after the fullmove number");
+        }
+        game.setMoveCounters(halfmoveClock, fullmoveNumber);
+        return game;
+    }
+
+    /**
+     * Writes a game as FEN. A castling right is only written while the king and that rook are still on their
+     * starting squares, and the en passant square is written after any two-square pawn advance.
+     *
+     * @param game game to describe
+     * @return position in FEN
+     */
+    public static String toFen(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        StringBuilder builder = new StringBuilder(90);
+
+        for (int row = 8; row >= 1; row--) {
+            int empty = 0;
+            for (int column = 1; column <= 8; column++) {
+                ChessPiece piece = board.getPiece(ChessPosition.of(row, column));
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    builder.append(empty);
+                    empty = 0;
+                }
+                builder.append(symbolFor(piece));
+            }
+            if (empty > 0) {
+                builder.append(empty);
+            }
+            if (row > 1) {
+                builder.append('/');
+            }
+        }
+
+        builder.append(game.getTeamTurn() == ChessGame.TeamColor.WHITE ? " w " : " b ");
+
+        int length = builder.length();
+        appendCastling(builder, game, ChessGame.TeamColor.WHITE, true, 'K');
+        appendCastling(builder, game, ChessGame.TeamColor.WHITE, false, 'Q');
+        appendCastling(builder, game, ChessGame.TeamColor.BLACK, true, 'k');
+        appendCastling(builder, game, ChessGame.TeamColor.BLACK, false, 'q');
+        if (builder.length() == length) {
+            builder.append('-');
+        }
+
+        builder.append(' ');
+        ChessMove lastMove = game.getLastMove();
+        if (lastMove != null && isTwoSquarePawnAdvance(board, lastMove)) {
+            builder.append((char) ('a' + lastMove.getEndPosition().getColumnIndex()))
+                    .append((lastMove.getStartPosition().getRow() + lastMove.getEndPosition().getRow()) / 2);
+        } else {
+            builder.append('-');
+        }
+
+        builder.append(' ').append(game.getHalfmoveClock()).append(' ').append(game.getFullmoveNumber());
+        return builder.toString();
+    }
+
+    private static void appendCastling(StringBuilder builder, ChessGame game, ChessGame.TeamColor color,
+                                       boolean kingSide, char symbol) {
+        int homeRow = (color == ChessGame.TeamColor.WHITE) ? 1 : 8;
+        ChessPiece king = game.getBoard().getPiece(ChessPosition.of(homeRow, 5));
+        ChessPiece rook = game.getBoard().getPiece(ChessPosition.of(homeRow, kingSide ? 8 : 1));
+        if (game.hasCastlingRight(color, kingSide)
+                && ChessPiece.of(color, ChessPiece.PieceType.KING).equals(king)
+                && ChessPiece.of(color, ChessPiece.PieceType.ROOK).equals(rook)) {
+            builder.append(symbol);
+        }
+    }
+
+    private static boolean isTwoSquarePawnAdvance(ChessBoard board, ChessMove move) {
+        ChessPiece piece = board.getPiece(move.getEndPosition());
+        return piece != null && piece.getPieceType() == ChessPiece.PieceType.PAWN
+                && move.getStartPosition().getColumn() == move.getEndPosition().getColumn()
+                && Math.abs(move.getStartPosition().getRow() - move.getEndPosition().getRow()) == 2;
+    }
+
+    private static ChessPiece pieceFor(char symbol, String fen) {
+        ChessGame.TeamColor color = Character.isUpperCase(symbol) ? ChessGame.TeamColor.WHITE
+                : ChessGame.TeamColor.BLACK;
+        ChessPiece.PieceType type = switch (Character.toLowerCase(symbol)) {
+            case 'k' -> ChessPiece.PieceType.KING;
+            case 'q' -> ChessPiece.PieceType.QUEEN;
+            case 'b' -> ChessPiece.PieceType.BISHOP;
+            case 'n' -> ChessPiece.PieceType.KNIGHT;
+            case 'r' -> ChessPiece.PieceType.ROOK;
+            case 'p' -> ChessPiece.PieceType.PAWN;
+            default -> throw invalid(fen, "unknown piece '" + symbol + "'");
+        };
+        return ChessPiece.of(color, type);
+    }
+
+    private static char symbolFor(ChessPiece piece) {
+        char symbol = switch (piece.getPieceType()) {
+            case KING -> 'k';
+            case QUEEN -> 'q';
+            case BISHOP -> 'b';
+            case KNIGHT -> 'n';
+            case ROOK -> 'r';
+            case PAWN -> 'p';
+        };
+        return (piece.getTeamColor() == ChessGame.TeamColor.WHITE) ? Character.toUpperCase(symbol) : symbol;
+    }
+
+    private static int parseCounter(String fen, int start, int end) {
+        if (start == end) {
+            throw invalid(fen, "missing move counter");
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char digit = fen.charAt(i);
+            if (digit < '0' || digit > '9' || value > 100_000) {
+                throw invalid(fen, "move counters must be small non-negative numbers");
+            }
+            value = value * 10 + (digit - '0');
+        }
+        return value;
+    }
+
+    private static int skipSpace(String fen, int index) {
+        while (index < fen.length() && fen.charAt(index) == ' ') {
+            index++;
+        }
+        return index;
+    }
+
+    private static int nextSpace(String fen, int index) {
+        while (index < fen.length() && fen.charAt(index) != ' ') {
+            index++;
+        }
+        return index;
+    }
+
+    private static IllegalArgumentException invalid(String fen, String reason) {
+        return new IllegalArgumentException("Invalid FEN \"" + fen + "\": " + reason);
+    }
+}
@@ -0,0 +1,168 @@
+package chess;
+
+import serialization.Serializer;
+
+import java.util.Base64;
+
+/**
+ * Compact, versioned binary encoding of a ChessGame, about 40 bytes in place of a JSON document of well over
+ * a kilobyte. Layout of version 1:
+ * <ul>
+ *     <li>1 byte: format version</li>
+ *     <li>32 bytes: the 64 squares from a1 to h8, two per byte with the lower square in the low nibble.
+ *     0 is an empty square, otherwise the piece's Bitboard piece index + 1</li>
+ *     <li>1 byte: flags, see the FLAG constants</li>
+ *     <li>2 bytes, only if FLAG_LAST_MOVE is set: the last move packed as in Move, without flags</li>
+ *     <li>2 bytes each: halfmove clock and fullmove number</li>
+ * </ul>
+ * Multi-byte values are big-endian. A new layout gets a new version number, and decode keeps reading the old ones.
+ */
+public class GameCodec {
+    public static final int VERSION = 1;
+
+    private static final int FLAG_BLACK_TO_MOVE = 1;
+    private static final int FLAG_WHITE_KING_CASTLE = 1 << 1;
+    private static final int FLAG_WHITE_QUEEN_CASTLE = 1 << 2;
+    private static final int FLAG_BLACK_KING_CASTLE = 1 << 3;
+    private static final int FLAG_BLACK_QUEEN_CASTLE = 1 << 4;
+    private static final int FLAG_GAME_OVER = 1 << 5;
+    private static final int FLAG_EN_PASSANT_VALID = 1 << 6;
+    private static final int FLAG_LAST_MOVE = 1 << 7;
+
+    private static final int SQUARES_OFFSET = 1;
+    private static final int FLAGS_OFFSET = 33;
+    private static final int MIN_LENGTH = FLAGS_OFFSET + 1 + 4;
+
+    private static final ChessPiece[] PIECES = new ChessPiece[12]; // Indexed by Bitboard piece index
+
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (ChessPiece.PieceType type : ChessPiece.PieceType.values()) {
+                PIECES[Bitboard.pieceIndex(color, type)] = ChessPiece.of(color, type);
+            }
+        }
+    }
+
+    /**
+     * @param game game to encode
+     * @return the game in the current binary format
+     */
+    public static byte[] encode(ChessGame game) {
+        ChessMove lastMove = game.getLastMove();
+        byte[] bytes = new byte[MIN_LENGTH + (lastMove == null ? 0 : 2)];
+        bytes[0] = VERSION;
+
+        ChessBoard board = game.getBoard();
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = board.getPiece(Bitboard.toPosition(square));
+            if (piece != null) {
+                int code = Bitboard.pieceIndex(piece.getTeamColor(), piece.getPieceType()) + 1;
+                bytes[SQUARES_OFFSET + square / 2] |= (byte) ((square % 2 == 0) ? code : code << 4);
+            }
+        }
+
+        int flags = 0;
+        flags |= (game.getTeamTurn() == ChessGame.TeamColor.BLACK) ? FLAG_BLACK_TO_MOVE : 0;
+        flags |= game.hasCastlingRight(ChessGame.TeamColor.WHITE, true) ? FLAG_WHITE_KING_CASTLE : 0;
+        flags |= game.hasCastlingRight(ChessGame.TeamColor.WHITE, false) ? FLAG_WHITE_QUEEN_CASTLE : 0;
+        flags |= game.hasCastlingRight(ChessGame.TeamColor.BLACK, true) ? FLAG_BLACK_KING_CASTLE : 0;
+        flags |= game.hasCastlingRight(ChessGame.TeamColor.BLACK, false) ? FLAG_BLACK_QUEEN_CASTLE : 0;
+        flags |= game.isGameOver() ? FLAG_GAME_OVER : 0;
+        flags |= game.isEnPassantValid() ? FLAG_EN_PASSANT_VALID : 0;
+        flags |= (lastMove != null) ? FLAG_LAST_MOVE : 0;
+        bytes[FLAGS_OFFSET] = (byte) flags;
+
+        int offset = FLAGS_OFFSET + 1;
+        if (lastMove != null) {
+            offset = writeShort(bytes, offset, Move.encode(Bitboard.square(lastMove.getStartPosition()),
+                    Bitboard.square(lastMove.getEndPosition()), lastMove.getPromotionPiece(), 0));
+        }
+        offset = writeShort(bytes, offset, game.getHalfmoveClock());
+        writeShort(bytes, offset, game.getFullmoveNumber());
+        return bytes;
+    }
+
+    /**
+     * @param bytes game encoded by encode, in this or any earlier version
+     * @return the decoded game
+     * @throws IllegalArgumentException if the version is unknown or the data is truncated or corrupt
+     */
+    public static ChessGame decode(byte[] bytes) {
+        if (bytes.length == 0 || bytes[0] != VERSION) {
+            throw new IllegalArgumentException("Unknown game encoding version "
+                    + (bytes.length == 0 ? "(empty)" : Integer.toString(bytes[0])));
+        }
+        int flags = (bytes.length > FLAGS_OFFSET) ? bytes[FLAGS_OFFSET] & 0xFF : 0;
+        int expectedLength = MIN_LENGTH + ((flags & FLAG_LAST_MOVE) != 0 ? 2 : 0);
+        if (bytes.length != expectedLength) {
+            throw new IllegalArgumentException("Encoded game is " + bytes.length + " bytes, expected " + expectedLength);
+        }
+
+        ChessBoard board = new ChessBoard();
+        for (int square = 0; square < 64; square++) {
+            int packed = bytes[SQUARES_OFFSET + square / 2];
+            int code = ((square % 2 == 0) ? packed : packed >>> 4) & 0xF;
+            if (code > PIECES.length) {
+                throw new IllegalArgumentException("Invalid piece code " + code + " on square " + square);
+            }
+            if (code != 0) {
+                board.addPiece(Bitboard.toPosition(square), PIECES[code - 1]);
+            }
+        }
+
+        ChessGame game = new ChessGame(board);
+        game.setTeamTurn((flags & FLAG_BLACK_TO_MOVE) != 0 ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE);
+        game.setCastlingRight(ChessGame.TeamColor.WHITE, true, (flags & FLAG_WHITE_KING_CASTLE) != 0);
+        game.setCastlingRight(ChessGame.TeamColor.WHITE, false, (flags & FLAG_WHITE_QUEEN_CASTLE) != 0);
+        game.setCastlingRight(ChessGame.TeamColor.BLACK, true, (flags & FLAG_BLACK_KING_CASTLE) != 0);
+        game.setCastlingRight(ChessGame.TeamColor.BLACK, false, (flags & FLAG_BLACK_QUEEN_CASTLE) != 0);
+        game.setEnPassantValid((flags & FLAG_EN_PASSANT_VALID) != 0);
+        if ((flags & FLAG_GAME_OVER) != 0) {
+            game.endGame();
+        }
+
+        int offset = FLAGS_OFFSET + 1;
+        if ((flags & FLAG_LAST_MOVE) != 0) {
+            game.setLastMove(Move.toChessMove(readShort(bytes, offset)));
+            offset += 2;
+        }
+        game.setMoveCounters(readShort(bytes, offset), readShort(bytes, offset + 2));
+        return game;
+    }
+
+    /**
+     * @param game game to encode
+     * @return the binary encoding as Base64, for storing in a text column or sending as a string
+     */
+    public static String encodeToString(ChessGame game) {
+        return Base64.getEncoder().encodeToString(encode(game));
+    }
+
+    /**
+     * Reads a game written by encodeToString, or a game serialized as Gson JSON before the binary format
+     * existed. JSON always starts with '{', which is not a Base64 character.
+     *
+     * @param text Base64 binary encoding or JSON
+     * @return the decoded game
+     * @throws IllegalArgumentException if the text is neither
+     */
+    public static ChessGame decodeFromString(String text) {
+        if (text.startsWith("{")) {
+            return Serializer.GSON.fromJson(text, ChessGame.class);
+        }
+        return decode(Base64.getDecoder().decode(text));
+    }
+
+    private static int writeShort(byte[] bytes, int offset, int value) {
+        if (value < 0 || value > 0xFFFF) {
+            throw new IllegalArgumentException("Value " + value + " does not fit in two bytes");
+        }
+        bytes[offset] = (byte) (value >>> 8);
+        bytes[offset + 1] = (byte) value;
+        return offset + 2;
+    }
+
+    private static int readShort(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xFF) << 8) | (bytes[offset + 1] & 0xFF);
+    }
+}
@@ -0,0 +1,23 @@
+package chess;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Lets reflective Gson write ChessGame's packed last move as the ChessMove object it used to store, so the JSON
+ * of a game is the same whether or not the streaming adapters are registered
+ */
+public class LastMoveAdapter extends TypeAdapter<Integer> {
+    @Override
+    public void write(JsonWriter out, Integer move) throws IOException {
+        ChessGameAdapter.writeMove(out, (move == Move.NONE) ? null : Move.toChessMove(move));
+    }
+
+    @Override
+    public Integer read(JsonReader in) throws IOException {
+        return ChessGame.packLastMove(ChessGameAdapter.readMove(in));
+    }
+}
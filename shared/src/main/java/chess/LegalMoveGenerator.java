@@ -0,0 +1,271 @@
+package chess;
+
+/**
+ * Generates only legal moves. Pieces giving check and pieces pinned to their king are found once per call,
+ * then every candidate is filtered with bitboard masks instead of being played out and tested for check.
+ * <p>
+ * A generator keeps per-call state in fields, so an instance must not be shared between threads.
+ */
+public class LegalMoveGenerator {
+    private static final ChessPiece.PieceType[] PROMOTION_TYPES = {
+            ChessPiece.PieceType.QUEEN,
+            ChessPiece.PieceType.ROOK,
+            ChessPiece.PieceType.BISHOP,
+            ChessPiece.PieceType.KNIGHT
+    };
+
+    private Bitboard bitboard;
+    private ChessGame.TeamColor us;
+    private ChessGame.TeamColor them;
+    private int kingSquare; // -1 when the team has no king on the board
+    private long ours;
+    private long theirs;
+    private long occupied;
+    private long checkers;
+    private long checkMask; // Non-king moves must land here: the checker or a square blocking it
+    private long pinned;
+    private boolean enPassantFound;
+
+    /**
+     * Appends every legal move for the given team's pieces on the given squares. The team need not be the
+     * team whose turn it is.
+     *
+     * @param game  game supplying the board, last move and castling rights
+     * @param team  team whose moves are generated
+     * @param from  bitboard of squares to generate moves from, pass -1L for the whole team
+     * @param moves list the legal moves are appended to, packed as described in Move
+     */
+    public void generate(ChessGame game, ChessGame.TeamColor team, long from, MoveList moves) {
+        analyze(game.getBoard().getBitboard(), team);
+        from &= ours;
+
+        if (kingSquare >= 0 && (from & Bitboard.bit(kingSquare)) != 0) {
+            addKingMoves(moves);
+            addCastlingMoves(game, moves);
+        }
+        if (Long.bitCount(checkers) > 1) {
+            return; // Double check, only the king can move
+        }
+
+        addPawnMoves(from, moves);
+        addEnPassantMoves(game.getLastPackedMove(), from, moves);
+        addPieceMoves(ChessPiece.PieceType.KNIGHT, from, moves);
+        addPieceMoves(ChessPiece.PieceType.BISHOP, from, moves);
+        addPieceMoves(ChessPiece.PieceType.ROOK, from, moves);
+        addPieceMoves(ChessPiece.PieceType.QUEEN, from, moves);
+    }
+
+    /**
+     * @return true if the team passed to the last generate call was in check
+     */
+    public boolean isInCheck() {
+        return checkers != 0;
+    }
+
+    /**
+     * @return true if the last generate call produced an en passant capture
+     */
+    public boolean foundEnPassant() {
+        return enPassantFound;
+    }
+
+    /**
+     * Finds checkers and pinned pieces for the team about to move
+     */
+    private void analyze(Bitboard bitboard, ChessGame.TeamColor team) {
+        this.bitboard = bitboard;
+        us = team;
+        them = (team == ChessGame.TeamColor.WHITE) ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        ours = bitboard.getOccupancy(us);
+        theirs = bitboard.getOccupancy(them);
+        occupied = bitboard.getOccupied();
+        checkers = 0;
+        checkMask = -1L;
+        pinned = 0;
+        enPassantFound = false;
+
+        long king = bitboard.getPieces(us, ChessPiece.PieceType.KING);
+        if (king == 0) {
+            kingSquare = -1; // Nothing to protect, every pseudo-legal move is legal
+            return;
+        }
+        kingSquare = Long.numberOfTrailingZeros(king);
+
+        checkers = Attacks.attackersTo(bitboard, kingSquare, them, occupied);
+        if (Long.bitCount(checkers) == 1) {
+            checkMask = checkers | Attacks.between(kingSquare, Long.numberOfTrailingZeros(checkers));
+        }
+
+        // Enemy sliders that would see the king if our own pieces were transparent
+        long queens = bitboard.getPieces(them, ChessPiece.PieceType.QUEEN);
+        long snipers = (Attacks.rookAttacks(kingSquare, theirs)
+                & (bitboard.getPieces(them, ChessPiece.PieceType.ROOK) | queens))
+                | (Attacks.bishopAttacks(kingSquare, theirs)
+                & (bitboard.getPieces(them, ChessPiece.PieceType.BISHOP) | queens));
+        while (snipers != 0) {
+            int sniper = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+            long blockers = Attacks.between(kingSquare, sniper) & occupied;
+            if (Long.bitCount(blockers) == 1 && (blockers & ours) != 0) {
+                pinned |= blockers;
+            }
+        }
+    }
+
+    /**
+     * @return squares a non-king piece on the given square may legally move to
+     */
+    private long legalTargets(int square) {
+        long targets = ~ours & checkMask;
+        if ((pinned & Bitboard.bit(square)) != 0) {
+            targets &= Attacks.line(kingSquare, square);
+        }
+        return targets;
+    }
+
+    private boolean isAttacked(int square, long occupancy) {
+        return Attacks.isAttacked(bitboard, square, them, occupancy);
+    }
+
+    private void addKingMoves(MoveList moves) {
+        // The king no longer blocks the rays of the sliders attacking it once it steps away
+        long occupancyWithoutKing = occupied & ~Bitboard.bit(kingSquare);
+        long targets = Attacks.kingAttacks(kingSquare) & ~ours;
+        while (targets != 0) {
+            int target = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            if (!isAttacked(target, occupancyWithoutKing)) {
+                addMove(kingSquare, target, null, moves);
+            }
+        }
+    }
+
+    /**
+     * Castling needs the right to still be held, the king and rook on their starting squares, an empty path,
+     * and the king neither in check nor passing through or landing on an attacked square
+     */
+    private void addCastlingMoves(ChessGame game, MoveList moves) {
+        int homeRow = (us == ChessGame.TeamColor.WHITE) ? 1 : 8;
+        if (checkers != 0 || kingSquare != Bitboard.square(homeRow, 5)) {
+            return;
+        }
+        long rooks = bitboard.getPieces(us, ChessPiece.PieceType.ROOK);
+        long occupancyWithoutKing = occupied & ~Bitboard.bit(kingSquare);
+
+        if (game.hasCastlingRight(us, true) && (rooks & Bitboard.bit(Bitboard.square(homeRow, 8))) != 0
+                && (occupied & Attacks.between(kingSquare, Bitboard.square(homeRow, 8))) == 0
+                && !isAttacked(Bitboard.square(homeRow, 6), occupancyWithoutKing)
+                && !isAttacked(Bitboard.square(homeRow, 7), occupancyWithoutKing)) {
+            moves.add(Move.encode(kingSquare, Bitboard.square(homeRow, 7), null, Move.CASTLE));
+        }
+        if (game.hasCastlingRight(us, false) && (rooks & Bitboard.bit(Bitboard.square(homeRow, 1))) != 0
+                && (occupied & Attacks.between(kingSquare, Bitboard.square(homeRow, 1))) == 0
+                && !isAttacked(Bitboard.square(homeRow, 4), occupancyWithoutKing)
+                && !isAttacked(Bitboard.square(homeRow, 3), occupancyWithoutKing)) {
+            moves.add(Move.encode(kingSquare, Bitboard.square(homeRow, 3), null, Move.CASTLE));
+        }
+    }
+
+    private void addPawnMoves(long from, MoveList moves) {
+        int step = (us == ChessGame.TeamColor.WHITE) ? 8 : -8;
+        int startRow = (us == ChessGame.TeamColor.WHITE) ? 2 : 7;
+        long pawns = bitboard.getPieces(us, ChessPiece.PieceType.PAWN) & from;
+
+        while (pawns != 0) {
+            int square = Long.numberOfTrailingZeros(pawns);
+            pawns &= pawns - 1;
+            long targets = legalTargets(square);
+
+            // Captures
+            long captures = Attacks.pawnAttacks(us, square) & theirs & targets;
+            while (captures != 0) {
+                int target = Long.numberOfTrailingZeros(captures);
+                captures &= captures - 1;
+                addPawnMove(square, target, moves);
+            }
+
+            // Advance one space, then two from the starting row
+            int oneStep = square + step;
+            if (oneStep < 0 || oneStep > 63 || (occupied & Bitboard.bit(oneStep)) != 0) {
+                continue;
+            }
+            if ((targets & Bitboard.bit(oneStep)) != 0) {
+                addPawnMove(square, oneStep, moves);
+            }
+            int twoSteps = oneStep + step;
+            if (Bitboard.rowOf(square) == startRow && (occupied & Bitboard.bit(twoSteps)) == 0
+                    && (targets & Bitboard.bit(twoSteps)) != 0) {
+                moves.add(Move.encode(square, twoSteps, null, Move.DOUBLE_PUSH));
+            }
+        }
+    }
+
+    /**
+     * A pawn that just advanced two squares can be captured by an adjacent pawn as if it had advanced one.
+     * Legality is checked by removing both pawns from the occupancy, which also catches the case of two
+     * pawns leaving a rank and exposing the king to a rook or queen.
+     */
+    private void addEnPassantMoves(int lastMove, long from, MoveList moves) {
+        if (lastMove == Move.NONE) {
+            return;
+        }
+        int lastStart = Move.from(lastMove);
+        int lastEnd = Move.to(lastMove);
+        long enemyPawns = bitboard.getPieces(them, ChessPiece.PieceType.PAWN);
+        if ((enemyPawns & Bitboard.bit(lastEnd)) == 0 || Math.abs(lastStart - lastEnd) != 16) {
+            return;
+        }
+
+        int target = (lastStart + lastEnd) / 2;
+        long capturers = Attacks.pawnAttacks(them, target) & bitboard.getPieces(us, ChessPiece.PieceType.PAWN)
+                & from;
+        while (capturers != 0) {
+            int square = Long.numberOfTrailingZeros(capturers);
+            capturers &= capturers - 1;
+            if (kingSquare >= 0) {
+                long occupancy = (occupied & ~Bitboard.bit(square) & ~Bitboard.bit(lastEnd)) | Bitboard.bit(target);
+                long attackers = Attacks.attackersTo(bitboard, kingSquare, them, occupancy) & ~Bitboard.bit(lastEnd);
+                if (attackers != 0) {
+                    continue;
+                }
+            }
+            enPassantFound = true;
+            moves.add(Move.encode(square, target, null, Move.EN_PASSANT));
+        }
+    }
+
+    private void addPieceMoves(ChessPiece.PieceType type, long from, MoveList moves) {
+        long pieces = bitboard.getPieces(us, type) & from;
+        while (pieces != 0) {
+            int square = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            long targets = switch (type) {
+                case KNIGHT -> Attacks.knightAttacks(square);
+                case BISHOP -> Attacks.bishopAttacks(square, occupied);
+                case ROOK -> Attacks.rookAttacks(square, occupied);
+                case QUEEN -> Attacks.queenAttacks(square, occupied);
+                default -> throw new IllegalArgumentException("Not a piece moved by addPieceMoves: " + type);
+            } & legalTargets(square);
+            while (targets != 0) {
+                int target = Long.numberOfTrailingZeros(targets);
+                targets &= targets - 1;
+                addMove(square, target, null, moves);
+            }
+        }
+    }
+
+    private void addPawnMove(int from, int to, MoveList moves) {
+        int lastRow = (us == ChessGame.TeamColor.WHITE) ? 8 : 1;
+        if (Bitboard.rowOf(to) == lastRow) {
+            for (ChessPiece.PieceType promotionType : PROMOTION_TYPES) {
+                addMove(from, to, promotionType, moves);
+            }
+        } else {
+            addMove(from, to, null, moves);
+        }
+    }
+
+    private void addMove(int from, int to, ChessPiece.PieceType promotionType, MoveList moves) {
+        moves.add(Move.encode(from, to, promotionType, 0));
+    }
+}
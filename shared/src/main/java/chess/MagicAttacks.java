@@ -0,0 +1,133 @@
+package chess;
+
+/**
+ * Rook and bishop attacks looked up from tables keyed by occupancy (fancy magic bitboards).
+ * <p>
+ * Only the pieces on a slider's rays can change its attacks, and the board edge never blocks anything, so the
+ * occupancy is masked to the inner squares of those rays. Multiplying the masked occupancy by a per-square magic
+ * number packs the relevant bits into the top of the product, and the shifted product indexes that square's
+ * slice of the attack table. Every table entry is filled once at class load by walking the rays.
+ */
+public class MagicAttacks {
+    // Found by random search: each maps every blocker subset of its square to a collision-free index
+    private static final long[] ROOK_MAGICS = {
+            0x008000908064C000L, 0x0040200040001000L, 0x0180100080A0010AL, 0x8880041000800800L,
+            0x1200100201200804L, 0x0200020004011008L, 0x2180010000800600L, 0x0200005088210204L,
+            0x0400800040008021L, 0x0400400020005000L, 0x8240801000200080L, 0x8611001004200900L,
+            0x008180800C001800L, 0x0100800200800400L, 0x0A02000102000408L, 0x8020802300104280L,
+            0x0080004000402000L, 0xE010104000402000L, 0x0800808010002000L, 0xA280210008100100L,
+            0x0001818014000800L, 0xA002010100080400L, 0x0080240001020870L, 0x0001020004048845L,
+            0x0081826280004004L, 0x2020810900284000L, 0x0200100080802000L, 0x0200080080100080L,
+            0x8083080100100500L, 0x4406000901000400L, 0x0005020080800100L, 0x0090204200008114L,
+            0x0010400094800420L, 0x0900804000802002L, 0x0201001841002000L, 0x4100080080801000L,
+            0x4540040080800800L, 0x0002001004040020L, 0x0281195814001002L, 0x1240800040800100L,
+            0x0880042000524004L, 0x02C080410206002CL, 0x0801200241050010L, 0x8400080010008080L,
+            0x0008000500090010L, 0x0082009084020008L, 0x4012000108020004L, 0x9000104D08860004L,
+            0x2004204114800100L, 0x0148802112400300L, 0x0202842000100880L, 0x001B080080900080L,
+            0x001A002008100600L, 0x0004008004020080L, 0x5181000600040300L, 0x0000044401128A00L,
+            0x8044110480002441L, 0x2008110084402202L, 0x90806005090010C1L, 0x000420310A004A42L,
+            0x0023001004020801L, 0x0882001008040102L, 0x000230088118020CL, 0x0000019025040042L
+    };
+    private static final long[] BISHOP_MAGICS = {
+            0x0045010808008680L, 0x2002080204004898L, 0x0210009A10400006L, 0x0824050200810200L,
+            0x0006061105004090L, 0x00010108C0000000L, 0x0814040282104004L, 0x0012012201106800L,
+            0x10823014100C1040L, 0x0080C2088802808CL, 0x0281108410404000L, 0x0101212041826200L,
+            0x0020141028221058L, 0x2201020202200202L, 0x000082A801482000L, 0x0000008401411044L,
+            0x0007103014300404L, 0x0002091110010100L, 0x42140012040C0808L, 0x0800808802004020L,
+            0x90C4004210140000L, 0x0800200900A01000L, 0x00D0400201108810L, 0x80820183814412A0L,
+            0x00A01008202202B4L, 0x01C2021A09500402L, 0x0084440208042400L, 0x800400400C090100L,
+            0xBA10040010802100L, 0xD182009006005000L, 0x5011021001009004L, 0x0020420200510400L,
+            0x0292104000468800L, 0x00043009091C0500L, 0x0280441000020025L, 0x0042820080080080L,
+            0x0440101010010040L, 0x1000900100808080L, 0x0108108120089800L, 0x0044010200012682L,
+            0xC002500420900400L, 0x0040482210710800L, 0x0002060024000200L, 0x0281020A44000800L,
+            0xA0021200A4000200L, 0x0001301000840840L, 0x2868500108444220L, 0x0004111041000200L,
+            0x8044020842080200L, 0x0000220104210200L, 0x0000021201044000L, 0x0000280884040028L,
+            0x4012114010858003L, 0x0000081004082B88L, 0x3892700508208002L, 0x00220A041B060400L,
+            0x0812020284014881L, 0x010434A282103100L, 0x0490400824020800L, 0x4A20002C00208800L,
+            0x000000A011020200L, 0x4002940A02482202L, 0x5100100202140406L, 0x02102000840540C1L
+    };
+    private static final int[][] ROOK_DIRECTIONS = {
+            {0, 1}, {0, -1}, {1, 0}, {-1, 0}
+    };
+    private static final int[][] BISHOP_DIRECTIONS = {
+            {1, 1}, {-1, 1}, {-1, -1}, {1, -1}
+    };
+
+    private static final Magic[] ROOK = new Magic[64];
+    private static final Magic[] BISHOP = new Magic[64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            ROOK[square] = new Magic(square, ROOK_MAGICS[square], ROOK_DIRECTIONS);
+            BISHOP[square] = new Magic(square, BISHOP_MAGICS[square], BISHOP_DIRECTIONS);
+        }
+    }
+
+    /**
+     * @param square   square the rook is on
+     * @param occupied squares holding pieces of either team
+     * @return squares the rook attacks, including the first blocker in each direction
+     */
+    public static long rookAttacks(int square, long occupied) {
+        return ROOK[square].attacks(occupied);
+    }
+
+    /**
+     * @param square   square the bishop is on
+     * @param occupied squares holding pieces of either team
+     * @return squares the bishop attacks, including the first blocker in each direction
+     */
+    public static long bishopAttacks(int square, long occupied) {
+        return BISHOP[square].attacks(occupied);
+    }
+
+    private static final class Magic {
+        private final long mask;
+        private final long magic;
+        private final int shift;
+        private final long[] attacks;
+
+        Magic(int square, long magic, int[][] directions) {
+            this.mask = relevantOccupancy(square, directions);
+            this.magic = magic;
+            this.shift = 64 - Long.bitCount(mask);
+            this.attacks = new long[1 << Long.bitCount(mask)];
+
+            // Visit every subset of the mask (carry-rippler) and store the ray-walked attacks for it
+            long subset = 0;
+            do {
+                attacks[index(subset)] = Attacks.slidingAttacks(square, subset, directions);
+                subset = (subset - mask) & mask;
+            } while (subset != 0);
+        }
+
+        long attacks(long occupied) {
+            return attacks[index(occupied & mask)];
+        }
+
+        private int index(long maskedOccupancy) {
+            return (int) ((maskedOccupancy * magic) >>> shift);
+        }
+
+        /**
+         * @return squares along the rays that could block, excluding the last square before each edge
+         */
+        private static long relevantOccupancy(int square, int[][] directions) {
+            long mask = 0;
+            for (int[] direction : directions) {
+                int row = Bitboard.rowOf(square) + direction[0];
+                int column = Bitboard.columnOf(square) + direction[1];
+                while (isInBounds(row + direction[0], column + direction[1])) {
+                    mask |= Bitboard.bit(Bitboard.square(row, column));
+                    row += direction[0];
+                    column += direction[1];
+                }
+            }
+            return mask;
+        }
+
+        private static boolean isInBounds(int row, int column) {
+            return row >= 1 && row <= 8 && column >= 1 && column <= 8;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package chess;
+
+/**
+ * Packs a move into a single int so the engine can generate, store and replay moves without allocating.
+ * ChessMove is only built from a packed move at the public API boundary.
+ * <p>
+ * Layout, low bits first: start square (6 bits), end square (6 bits), promotion piece (3 bits, 0 for none,
+ * otherwise PieceType ordinal + 1), then one bit each for en passant, castling and a pawn's two-square advance.
+ * Squares are numbered as in Bitboard. No real move packs to 0, so 0 can stand for "no move".
+ */
+public class Move {
+    public static final int NONE = 0;
+
+    public static final int EN_PASSANT = 1 << 15;
+    public static final int CASTLE = 1 << 16;
+    public static final int DOUBLE_PUSH = 1 << 17;
+
+    private static final int SQUARE_MASK = 0x3F;
+    private static final int TO_SHIFT = 6;
+    private static final int PROMOTION_SHIFT = 12;
+    private static final int PROMOTION_MASK = 0x7;
+    private static final ChessPiece.PieceType[] PIECE_TYPES = ChessPiece.PieceType.values();
+
+    /**
+     * @param from          start square index
+     * @param to            end square index
+     * @param promotionType piece a pawn promotes to, or null
+     * @param flags         any of EN_PASSANT, CASTLE and DOUBLE_PUSH, or 0
+     * @return the packed move
+     */
+    public static int encode(int from, int to, ChessPiece.PieceType promotionType, int flags) {
+        int promotion = (promotionType == null) ? 0 : promotionType.ordinal() + 1;
+        return from | (to << TO_SHIFT) | (promotion << PROMOTION_SHIFT) | flags;
+    }
+
+    /**
+     * @return start square index of a packed move
+     */
+    public static int from(int move) {
+        return move & SQUARE_MASK;
+    }
+
+    /**
+     * @return end square index of a packed move
+     */
+    public static int to(int move) {
+        return (move >>> TO_SHIFT) & SQUARE_MASK;
+    }
+
+    /**
+     * @return piece a pawn promotes to, or null if the move is not a promotion
+     */
+    public static ChessPiece.PieceType promotion(int move) {
+        int promotion = (move >>> PROMOTION_SHIFT) & PROMOTION_MASK;
+        return (promotion == 0) ? null : PIECE_TYPES[promotion - 1];
+    }
+
+    public static boolean isEnPassant(int move) {
+        return (move & EN_PASSANT) != 0;
+    }
+
+    public static boolean isCastle(int move) {
+        return (move & CASTLE) != 0;
+    }
+
+    public static boolean isDoublePush(int move) {
+        return (move & DOUBLE_PUSH) != 0;
+    }
+
+    /**
+     * @return true if the packed move has the same start, end and promotion as the ChessMove, flags are ignored
+     */
+    public static boolean matches(int move, ChessMove chessMove) {
+        return from(move) == Bitboard.square(chessMove.getStartPosition())
+                && to(move) == Bitboard.square(chessMove.getEndPosition())
+                && promotion(move) == chessMove.getPromotionPiece();
+    }
+
+    /**
+     * @return the ChessMove for a packed move
+     */
+    public static ChessMove toChessMove(int move) {
+        return new ChessMove(Bitboard.toPosition(from(move)), Bitboard.toPosition(to(move)), promotion(move));
+    }
+}
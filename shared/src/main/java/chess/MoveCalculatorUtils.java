@@ -1,50 +1,26 @@
 package chess;
 
-import java.util.ArrayList;
 import java.util.Collection;
 
 public class MoveCalculatorUtils {
-    public static Collection<ChessMove> generateMoves(ChessBoard board, ChessPosition startPosition, int[][] directions, boolean singleStep) {
-        Collection<ChessMove> validMoves = new ArrayList<>();
-
-        // Iterate over all possible move directions
-        for (int[] direction : directions) {
-            ChessPosition currentPosition = new ChessPosition(
-                    startPosition.getRow() + direction[0],
-                    startPosition.getColumn() + direction[1]
-            );
-
-            while (true) {
-                // Break if out of bounds
-                if (!currentPosition.isInBounds()) {
-                    break;
-                }
-
-                // Add move if occupied by opponent, otherwise break
-                if (board.getPiece(currentPosition) != null) {
-                    if (board.getPiece(currentPosition).getTeamColor() != board.getPiece(startPosition).getTeamColor()) {
-                        validMoves.add(new ChessMove(startPosition, currentPosition, null));
-                    }
-                    break;
-                }
-
-                // Add to valid moves (move is in bounds and unoccupied)
-                validMoves.add(new ChessMove(startPosition, currentPosition, null));
-
-                // If single-step piece (King/Knight), break after first move
-                if (singleStep) {
-                    break;
-                }
-
-                // Continue for multiple step pieces (Queen, Rook, Bishop)
-                currentPosition = new ChessPosition(
-                        currentPosition.getRow() + direction[0],
-                        currentPosition.getColumn() + direction[1]
-                );
-            }
+    /**
+     * Turns a precomputed attack set into moves, skipping squares held by the moving piece's own team, so every
+     * attacked square that is empty or holds an enemy piece gets a move
+     *
+     * @param board         board the piece is on
+     * @param startPosition position of the moving piece
+     * @param attacks       bitboard of squares the piece attacks from startPosition
+     * @param validMoves    collection the moves are appended to
+     */
+    public static void generateMoves(ChessBoard board, ChessPosition startPosition, long attacks,
+                                     Collection<ChessMove> validMoves) {
+        ChessGame.TeamColor myColor = board.getPiece(startPosition).getTeamColor();
+        long targets = attacks & ~board.getBitboard().getOccupancy(myColor);
+
+        while (targets != 0) {
+            int target = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            validMoves.add(new ChessMove(startPosition, Bitboard.toPosition(target), null));
         }
-
-        return validMoves;
     }
 }
-
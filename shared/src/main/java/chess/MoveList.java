@@ -0,0 +1,72 @@
+package chess;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Growable list of packed moves (see Move) backed by an int array. Meant to be cleared and reused, so
+ * generating moves into it allocates nothing once it has reached its working size.
+ */
+public class MoveList {
+    // No legal chess position has more than 218 moves
+    private static final int DEFAULT_CAPACITY = 256;
+
+    private int[] moves = new int[DEFAULT_CAPACITY];
+    private int size;
+
+    public void add(int move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = move;
+    }
+
+    /**
+     * @param index position in the list, from 0 to size() - 1
+     * @return the packed move at that position
+     */
+    public int get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return moves[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Finds the packed form of a ChessMove, which carries the en passant, castling and two-square advance flags
+     *
+     * @param move move to look for
+     * @return the matching packed move, or Move.NONE if the list does not contain it
+     */
+    public int find(ChessMove move) {
+        for (int i = 0; i < size; i++) {
+            if (Move.matches(moves[i], move)) {
+                return moves[i];
+            }
+        }
+        return Move.NONE;
+    }
+
+    /**
+     * Converts every move in the list to a ChessMove, for handing moves across the public API
+     *
+     * @param target collection the converted moves are appended to
+     */
+    public void addTo(Collection<ChessMove> target) {
+        for (int i = 0; i < size; i++) {
+            target.add(Move.toChessMove(moves[i]));
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package chess;
+
+/**
+ * Undo record for a move made in place, holding everything needed to take the move back
+ * <p>
+ * ChessBoard fills in the board half (moved piece, captured piece, rook displaced by castling) and ChessGame
+ * fills in the game half (turn, last move, castling rights, move counters). Instances are reusable: every make
+ * overwrites all fields, so legality checks can run against a single record without allocating.
+ */
+public class MoveUndo {
+    // Board state
+    int move; // Packed, see Move
+    ChessPiece movedPiece;
+    ChessPiece capturedPiece;
+    int capturedSquare; // Differs from the end square only for en passant
+    int rookStart; // -1 unless the move was a castle
+    int rookEnd;
+
+    // Game state
+    ChessGame.TeamColor team;
+    int lastMove; // Packed, see Move
+    boolean enPassantValid;
+    boolean whiteQueenCastle;
+    boolean whiteKingCastle;
+    boolean blackQueenCastle;
+    boolean blackKingCastle;
+    int halfmoveClock;
+    int fullmoveNumber;
+
+    /**
+     * @return the move this record can take back
+     */
+    public ChessMove getMove() {
+        return Move.toChessMove(move);
+    }
+
+    /**
+     * @return piece removed by the move, or null if nothing was captured
+     */
+    public ChessPiece getCapturedPiece() {
+        return capturedPiece;
+    }
+}
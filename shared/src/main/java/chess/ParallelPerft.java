@@ -0,0 +1,144 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Perft spread over a ForkJoinPool. The top plies of the move tree are split into tasks, each task works on
+ * its own copy of the game, and below the split each task runs a sequential Perft. Tasks return their counts
+ * instead of updating shared totals, and the counts are combined as the tasks are joined.
+ * <p>
+ * Usage: {@code ParallelPerft <depth> [threads] [fen]}, starting from the standard position if no FEN is given.
+ */
+public class ParallelPerft {
+    private final ForkJoinPool pool;
+    private final int splitPlies;
+
+    /**
+     * @param pool       pool to run the search on
+     * @param splitPlies number of plies from the root that are split into separate tasks, 2 gives several
+     *                   hundred tasks from a typical position, enough to keep dozens of threads busy
+     */
+    public ParallelPerft(ForkJoinPool pool, int splitPlies) {
+        this.pool = pool;
+        this.splitPlies = splitPlies;
+    }
+
+    /**
+     * Node count of a finished search, with the share of the work each thread did
+     */
+    public record Result(long nodes, long nanos, List<ThreadStats> threads) {
+        public long nodesPerSecond() {
+            return (long) (nodes / (Math.max(nanos, 1) / 1e9));
+        }
+    }
+
+    /**
+     * Leaf nodes counted by one thread and the time it spent counting them
+     */
+    public record ThreadStats(String thread, long nodes, int tasks, long nanos) {
+        public long nodesPerSecond() {
+            return (long) (nodes / (Math.max(nanos, 1) / 1e9));
+        }
+    }
+
+    // Work done by one sequential search, reported back up the task tree
+    private record LeafCount(String thread, long nodes, long nanos) {
+    }
+
+    /**
+     * Counts leaf nodes to the given depth. The game itself is only copied, never modified.
+     *
+     * @param game  position to count from
+     * @param depth number of plies to search, at least 1
+     * @return total and per-thread counts
+     */
+    public Result count(ChessGame game, int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Depth must be at least 1, got " + depth);
+        }
+        long start = System.nanoTime();
+        List<LeafCount> leaves = pool.invoke(new PerftTask(new ChessGame(game), depth, splitPlies));
+        long elapsed = System.nanoTime() - start;
+
+        Map<String, ThreadStats> threads = new LinkedHashMap<>();
+        long nodes = 0;
+        for (LeafCount leaf : leaves) {
+            nodes += leaf.nodes();
+            threads.merge(leaf.thread(), new ThreadStats(leaf.thread(), leaf.nodes(), 1, leaf.nanos()),
+                    (a, b) -> new ThreadStats(a.thread(), a.nodes() + b.nodes(), a.tasks() + b.tasks(),
+                            a.nanos() + b.nanos()));
+        }
+        return new Result(nodes, elapsed, new ArrayList<>(threads.values()));
+    }
+
+    /**
+     * Owns its game outright: it was copied for this task by the parent and is never seen by another thread
+     */
+    private static class PerftTask extends RecursiveTask<List<LeafCount>> {
+        private final ChessGame game;
+        private final int depth;
+        private final int splitPlies;
+
+        PerftTask(ChessGame game, int depth, int splitPlies) {
+            this.game = game;
+            this.depth = depth;
+            this.splitPlies = splitPlies;
+        }
+
+        @Override
+        protected List<LeafCount> compute() {
+            if (splitPlies == 0 || depth <= 2) {
+                long start = System.nanoTime();
+                long nodes = new Perft(game).count(depth);
+                return List.of(new LeafCount(Thread.currentThread().getName(), nodes, System.nanoTime() - start));
+            }
+
+            MoveList moves = new MoveList();
+            new LegalMoveGenerator().generate(game, game.getTeamTurn(), -1L, moves);
+            MoveUndo undo = new MoveUndo();
+            List<PerftTask> children = new ArrayList<>(moves.size());
+            for (int i = 0; i < moves.size(); i++) {
+                game.makeMove(moves.get(i), undo);
+                children.add(new PerftTask(new ChessGame(game), depth - 1, splitPlies - 1));
+                game.unmakeMove(undo);
+            }
+            invokeAll(children);
+
+            List<LeafCount> leaves = new ArrayList<>();
+            for (PerftTask child : children) {
+                leaves.addAll(child.join());
+            }
+            return leaves;
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: ParallelPerft <depth> [threads] [fen]");
+            System.exit(1);
+        }
+        int depth = Integer.parseInt(args[0]);
+        int threads = (args.length > 1) ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        ChessGame game = Fen.parse((args.length > 2) ? String.join(" ", Arrays.copyOfRange(args, 2, args.length))
+                : Fen.STARTING_POSITION);
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            Result result = new ParallelPerft(pool, 2).count(game, depth);
+            for (ThreadStats stats : result.threads()) {
+                System.out.println(stats.thread() + ": " + stats.nodes() + " nodes in " + stats.tasks() + " tasks, "
+                        + stats.nanos() / 1_000_000 + " ms busy (" + stats.nodesPerSecond() + " nodes/s)");
+            }
+            System.out.println("Depth " + depth + ": " + result.nodes() + " nodes in " + result.nanos() / 1_000_000
+                    + " ms on " + threads + " threads (" + result.nodesPerSecond() + " nodes/s)");
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
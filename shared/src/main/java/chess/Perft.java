@@ -0,0 +1,125 @@
+package chess;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Perft counts the leaf nodes of the legal move tree to a fixed depth. Counts for well known positions are
+ * published, so any mismatch points to a move generation bug, and the time taken measures generator speed.
+ * <p>
+ * Moves are made and taken back in place on the given game, using one move list and undo record per ply, so
+ * a run allocates almost nothing. A Perft instance drives one game on one thread.
+ * <p>
+ * Usage: {@code Perft <depth> [divide] [fen]}, starting from the standard position if no FEN is given.
+ */
+public class Perft {
+    private final ChessGame game;
+    private final LegalMoveGenerator moveGenerator = new LegalMoveGenerator();
+    private MoveList[] moveLists = new MoveList[0];
+    private MoveUndo[] undos = new MoveUndo[0];
+
+    public Perft(ChessGame game) {
+        this.game = game;
+    }
+
+    /**
+     * @param depth number of plies to search, at least 1
+     * @return number of positions reached after exactly depth plies
+     */
+    public long count(int depth) {
+        ensureCapacity(depth);
+        return count(depth, 0);
+    }
+
+    /**
+     * Counts leaf nodes separately below each legal move of the current position, the usual way to narrow
+     * down which move a generator bug is under
+     *
+     * @param depth number of plies to search, at least 1
+     * @return leaf node count for each root move, in generation order
+     */
+    public Map<ChessMove, Long> divide(int depth) {
+        ensureCapacity(depth);
+        Map<ChessMove, Long> counts = new LinkedHashMap<>();
+        MoveList moves = generate(0);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            long nodes = 1;
+            if (depth > 1) {
+                game.makeMove(move, undos[0]);
+                nodes = count(depth - 1, 1);
+                game.unmakeMove(undos[0]);
+            }
+            counts.put(Move.toChessMove(move), nodes);
+        }
+        return counts;
+    }
+
+    private long count(int depth, int ply) {
+        MoveList moves = generate(ply);
+        if (depth == 1) {
+            return moves.size(); // Bulk count, the leaves themselves need not be made
+        }
+        long nodes = 0;
+        MoveUndo undo = undos[ply];
+        for (int i = 0; i < moves.size(); i++) {
+            game.makeMove(moves.get(i), undo);
+            nodes += count(depth - 1, ply + 1);
+            game.unmakeMove(undo);
+        }
+        return nodes;
+    }
+
+    private MoveList generate(int ply) {
+        MoveList moves = moveLists[ply];
+        moves.clear();
+        moveGenerator.generate(game, game.getTeamTurn(), -1L, moves);
+        return moves;
+    }
+
+    private void ensureCapacity(int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Depth must be at least 1, got " + depth);
+        }
+        if (moveLists.length < depth) {
+            moveLists = new MoveList[depth];
+            undos = new MoveUndo[depth];
+            for (int i = 0; i < depth; i++) {
+                moveLists[i] = new MoveList();
+                undos[i] = new MoveUndo();
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: Perft <depth> [divide] [fen]");
+            System.exit(1);
+        }
+        int depth = Integer.parseInt(args[0]);
+        int next = 1;
+        boolean divide = args.length > next && args[next].equals("divide");
+        if (divide) {
+            next++;
+        }
+        String fen = (args.length > next) ? String.join(" ", Arrays.copyOfRange(args, next, args.length))
+                : Fen.STARTING_POSITION;
+
+        Perft perft = new Perft(Fen.parse(fen));
+        long start = System.nanoTime();
+        long nodes = 0;
+        if (divide) {
+            for (Map.Entry<ChessMove, Long> entry : perft.divide(depth).entrySet()) {
+                System.out.println(entry.getKey() + ": " + entry.getValue());
+                nodes += entry.getValue();
+            }
+        } else {
+            nodes = perft.count(depth);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        System.out.println("Depth " + depth + ": " + nodes + " nodes in " + elapsed / 1_000_000 + " ms ("
+                + (long) (nodes / (Math.max(elapsed, 1) / 1e9)) + " nodes/s)");
+    }
+}
@@ -1,7 +1,45 @@
 package chess;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
 
 public interface PieceMovesCalculator {
-    Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition);
+    /**
+     * One shared instance per piece type, calculators hold no state
+     */
+    Map<ChessPiece.PieceType, PieceMovesCalculator> CALCULATORS = Collections.unmodifiableMap(new EnumMap<>(Map.of(
+            ChessPiece.PieceType.KING, new KingMovesCalculator(),
+            ChessPiece.PieceType.QUEEN, new QueenMovesCalculator(),
+            ChessPiece.PieceType.BISHOP, new BishopMovesCalculator(),
+            ChessPiece.PieceType.KNIGHT, new KnightMovesCalculator(),
+            ChessPiece.PieceType.ROOK, new RookMovesCalculator(),
+            ChessPiece.PieceType.PAWN, new PawnMovesCalculator()
+    )));
+
+    /**
+     * @param type piece type
+     * @return the shared calculator for that piece type
+     */
+    static PieceMovesCalculator forType(ChessPiece.PieceType type) {
+        return CALCULATORS.get(type);
+    }
+
+    /**
+     * Appends the piece's moves to a caller-supplied collection, so one collection can be reused or filled
+     * with the moves of several pieces
+     *
+     * @param board      board the piece is on
+     * @param myPosition position of the piece
+     * @param moves      collection the moves are appended to
+     */
+    void pieceMoves(ChessBoard board, ChessPosition myPosition, Collection<ChessMove> moves);
+
+    default Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
+        Collection<ChessMove> moves = new ArrayList<>();
+        pieceMoves(board, myPosition, moves);
+        return moves;
+    }
 }
@@ -0,0 +1,76 @@
+package chess;
+
+/**
+ * Random 64-bit keys for Zobrist hashing. A position's key is the XOR of the keys of everything in it: each
+ * piece on its square, black to move, each castling right held, and the file of a capturable en passant pawn.
+ * Making a move then only needs to XOR out what changed and XOR in what replaced it.
+ * <p>
+ * Keys come from a fixed seed so the same position has the same key in every JVM and after every restart.
+ */
+public class Zobrist {
+    private static final long SEED = 0x5DEECE66DL;
+
+    private static final long[][] PIECE_SQUARE = new long[12][64]; // Indexed [Bitboard.pieceIndex][square]
+    private static final long BLACK_TO_MOVE;
+    private static final long[] CASTLING = new long[4]; // White king side, white queen side, black king side, black queen side
+    private static final long[] EN_PASSANT_FILE = new long[8];
+
+    static {
+        long state = SEED;
+        for (long[] squares : PIECE_SQUARE) {
+            for (int square = 0; square < 64; square++) {
+                state += 0x9E3779B97F4A7C15L;
+                squares[square] = mix(state);
+            }
+        }
+        state += 0x9E3779B97F4A7C15L;
+        BLACK_TO_MOVE = mix(state);
+        for (int i = 0; i < CASTLING.length; i++) {
+            state += 0x9E3779B97F4A7C15L;
+            CASTLING[i] = mix(state);
+        }
+        for (int i = 0; i < EN_PASSANT_FILE.length; i++) {
+            state += 0x9E3779B97F4A7C15L;
+            EN_PASSANT_FILE[i] = mix(state);
+        }
+    }
+
+    /**
+     * @param pieceIndex index from Bitboard.pieceIndex
+     * @param square     square index
+     * @return key for that piece standing on that square
+     */
+    public static long piece(int pieceIndex, int square) {
+        return PIECE_SQUARE[pieceIndex][square];
+    }
+
+    public static long blackToMove() {
+        return BLACK_TO_MOVE;
+    }
+
+    /**
+     * @param color    team holding the right
+     * @param kingSide true for king side, false for queen side
+     * @return key for that castling right
+     */
+    public static long castling(ChessGame.TeamColor color, boolean kingSide) {
+        return CASTLING[color.ordinal() * 2 + (kingSide ? 0 : 1)];
+    }
+
+    /**
+     * @param column 1-based column of the square a pawn can be captured en passant on
+     * @return key for en passant on that file
+     */
+    public static long enPassant(int column) {
+        return EN_PASSANT_FILE[column - 1];
+    }
+
+    /**
+     * SplitMix64 finalizer, turns a counter into well distributed bits
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,65 @@
+package model;
+
+import chess.ChessGame;
+import chess.ChessGameAdapter;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Streams GameData to and from the JSON reflective Gson produces for the record, with the game written by
+ * ChessGameAdapter
+ */
+public class GameDataAdapter extends TypeAdapter<GameData> {
+    private final ChessGameAdapter gameAdapter = new ChessGameAdapter();
+
+    @Override
+    public void write(JsonWriter out, GameData data) throws IOException {
+        if (data == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        out.name("gameID").value(data.gameID());
+        out.name("whiteUsername").value(data.whiteUsername());
+        out.name("blackUsername").value(data.blackUsername());
+        out.name("gameName").value(data.gameName());
+        out.name("game");
+        gameAdapter.write(out, data.game());
+        out.endObject();
+    }
+
+    @Override
+    public GameData read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        int gameID = 0;
+        String whiteUsername = null;
+        String blackUsername = null;
+        String gameName = null;
+        ChessGame game = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "gameID" -> gameID = in.nextInt();
+                case "whiteUsername" -> whiteUsername = in.nextString();
+                case "blackUsername" -> blackUsername = in.nextString();
+                case "gameName" -> gameName = in.nextString();
+                case "game" -> game = gameAdapter.read(in);
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return new GameData(gameID, whiteUsername, blackUsername, gameName, game);
+    }
+}
@@ -0,0 +1,31 @@
+package serialization;
+
+import chess.ChessBoard;
+import chess.ChessBoardAdapter;
+import chess.ChessGame;
+import chess.ChessGameAdapter;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import model.GameData;
+import model.GameDataAdapter;
+
+/**
+ * The Gson instance the client and server share. Games, boards and game data go through hand-written
+ * streaming adapters instead of reflection, writing the same JSON reflective Gson would.
+ * <p>
+ * Gson instances are thread safe, so use GSON directly rather than building a new Gson per message.
+ */
+public class Serializer {
+    public static final Gson GSON = builder().create();
+
+    /**
+     * @return a builder with the chess adapters registered, for callers needing other settings such as
+     * serializeNulls
+     */
+    public static GsonBuilder builder() {
+        return new GsonBuilder()
+                .registerTypeAdapter(ChessGame.class, new ChessGameAdapter())
+                .registerTypeAdapter(ChessBoard.class, new ChessBoardAdapter())
+                .registerTypeAdapter(GameData.class, new GameDataAdapter());
+    }
+}
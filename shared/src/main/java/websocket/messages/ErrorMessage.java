@@ -1,6 +1,6 @@
 package websocket.messages;
 
-import com.google.gson.Gson;
+import serialization.Serializer;
 
 public class ErrorMessage extends ServerMessage {
     public final String errorMessage;
@@ -12,6 +12,6 @@ public class ErrorMessage extends ServerMessage {
 
     @Override
     public String toString() {
-        return new Gson().toJson(this);
+        return Serializer.GSON.toJson(this);
     }
 }
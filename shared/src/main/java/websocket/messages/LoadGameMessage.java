@@ -1,7 +1,7 @@
 package websocket.messages;
 
-import com.google.gson.Gson;
 import model.GameData;
+import serialization.Serializer;
 
 public class LoadGameMessage extends ServerMessage {
     public final GameData game;
@@ -19,6 +19,35 @@ public class LoadGameMessage extends ServerMessage {
 
     @Override
     public String toString() {
-        return new Gson().toJson(this);
+        return Serializer.GSON.toJson(this);
+    }
+
+    /**
+     * Serializes a game once for sending to many recipients. Only userName differs between their messages,
+     * so each message is the shared game JSON with the user's name spliced in.
+     *
+     * @param game game to send
+     * @return encoded game, producing the same JSON as toString for each recipient
+     */
+    public static Encoded encode(GameData game) {
+        return new Encoded("{\"game\":" + Serializer.GSON.toJson(game));
+    }
+
+    /**
+     * The start of a LOAD_GAME message, up to and including the game
+     */
+    public record Encoded(String prefix) {
+        private static final String SUFFIX = ",\"serverMessageType\":\"" + ServerMessageType.LOAD_GAME + "\"}";
+
+        /**
+         * @param userName recipient's username, left out of the message if null as Gson would
+         * @return the complete message for that recipient
+         */
+        public String forUser(String userName) {
+            if (userName == null) {
+                return prefix + SUFFIX;
+            }
+            return prefix + ",\"userName\":" + Serializer.GSON.toJson(userName) + SUFFIX;
+        }
     }
 }
@@ -1,6 +1,6 @@
 package websocket.messages;
 
-import com.google.gson.Gson;
+import serialization.Serializer;
 
 public class Notification extends ServerMessage {
     public final String message;
@@ -12,6 +12,6 @@ public class Notification extends ServerMessage {
 
     @Override
     public String toString() {
-        return new Gson().toJson(this);
+        return Serializer.GSON.toJson(this);
     }
 }
@@ -0,0 +1,103 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class FenTests {
+
+    @Test
+    @DisplayName("Starting position matches a new game")
+    public void startingPosition() {
+        ChessGame game = Fen.parse(Fen.STARTING_POSITION);
+        Assertions.assertEquals(new ChessGame().getBoard(), game.getBoard());
+        Assertions.assertEquals(ChessGame.TeamColor.WHITE, game.getTeamTurn());
+        Assertions.assertEquals(new ChessGame().getPositionKey(), game.getPositionKey());
+        Assertions.assertEquals(Fen.STARTING_POSITION, new ChessGame().toFen());
+    }
+
+    @Test
+    @DisplayName("Parsing then writing gives back the same FEN")
+    public void roundTrip() {
+        String[] positions = {
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+                "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                "rnbqkbnr/pp1ppppp/8/2p5/4P3/8/PPPP1PPP/RNBQKBNR w KQkq c6 0 2",
+                "r3k2r/8/8/8/8/8/8/R3K2R b Kq - 12 40"
+        };
+        for (String fen : positions) {
+            Assertions.assertEquals(fen, ChessGame.fromFen(fen).toFen());
+        }
+    }
+
+    @Test
+    @DisplayName("Moves update side to move, en passant square and counters")
+    public void movesUpdateState() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+        Assertions.assertEquals("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1", game.toFen());
+        game.makeMove(new ChessMove(ChessPosition.of(8, 7), ChessPosition.of(6, 6), null));
+        Assertions.assertEquals("rnbqkb1r/pppppppp/5n2/8/4P3/8/PPPP1PPP/RNBQKBNR w KQkq - 1 2", game.toFen());
+        game.makeMove(new ChessMove(ChessPosition.of(1, 5), ChessPosition.of(2, 5), null));
+        Assertions.assertEquals("rnbqkb1r/pppppppp/5n2/8/4P3/8/PPPPKPPP/RNBQ1BNR b kq - 2 2", game.toFen());
+    }
+
+    @Test
+    @DisplayName("Capturing a rook on its home square removes that castling right")
+    public void rookCaptureClearsCastling() throws InvalidMoveException {
+        ChessMove bishopToH1 = new ChessMove(ChessPosition.of(2, 7), ChessPosition.of(1, 8), null);
+        ChessGame captured = Fen.parse("r3k2r/8/8/8/8/8/6b1/R3K2R b KQkq - 0 1");
+        captured.makeMove(bishopToH1);
+        ChessGame quiet = Fen.parse("r3k2r/8/8/8/8/8/6b1/R3K3 b Qkq - 0 1");
+        quiet.makeMove(bishopToH1);
+
+        Assertions.assertEquals("r3k2r/8/8/8/8/8/8/R3K2b w Qkq - 0 2", captured.toFen());
+        Assertions.assertEquals(quiet.getPositionKey(), captured.getPositionKey());
+
+        ChessMove rookTakesRook = new ChessMove(ChessPosition.of(1, 1), ChessPosition.of(8, 1), null);
+        captured = Fen.parse("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+        captured.makeMove(rookTakesRook);
+        Assertions.assertEquals("R3k2r/8/8/8/8/8/8/4K2R b Kk - 0 1", captured.toFen());
+    }
+
+    @Test
+    @DisplayName("En passant square is playable after loading")
+    public void enPassantLoaded() throws InvalidMoveException {
+        ChessGame game = Fen.parse("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3");
+        ChessMove capture = new ChessMove(ChessPosition.of(5, 5), ChessPosition.of(6, 6), null);
+        Assertions.assertTrue(game.validMoves(ChessPosition.of(5, 5)).contains(capture));
+        Assertions.assertFalse(game.validMoves(ChessPosition.of(5, 5))
+                .contains(new ChessMove(ChessPosition.of(5, 5), ChessPosition.of(6, 4), null)));
+        game.makeMove(capture);
+        Assertions.assertNull(game.getBoard().getPiece(ChessPosition.of(5, 6)));
+    }
+
+    @Test
+    @DisplayName("Counters may be left off")
+    public void countersOptional() {
+        ChessGame game = Fen.parse("4k3/8/8/8/8/8/8/4K3 b -");
+        Assertions.assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+        Assertions.assertEquals(0, game.getHalfmoveClock());
+        Assertions.assertEquals(1, game.getFullmoveNumber());
+    }
+
+    @Test
+    @DisplayName("Malformed FEN is rejected")
+    public void invalid() {
+        String[] positions = {
+                "",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNX w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQxq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq e4 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - zero 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1 extra"
+        };
+        for (String fen : positions) {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> Fen.parse(fen), fen);
+        }
+    }
+}
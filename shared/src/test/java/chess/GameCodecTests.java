@@ -0,0 +1,82 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+
+public class GameCodecTests {
+
+    @Test
+    @DisplayName("Encoding then decoding keeps the position, rights, last move and counters")
+    public void roundTrip() {
+        String[] positions = {
+                Fen.STARTING_POSITION,
+                "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                "rnbqkbnr/pp1ppppp/8/2p5/4P3/8/PPPP1PPP/RNBQKBNR w KQkq c6 0 2",
+                "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                "r3k2r/8/8/8/8/8/8/R3K2R b Kq - 12 40"
+        };
+        for (String fen : positions) {
+            ChessGame game = Fen.parse(fen);
+            ChessGame decoded = GameCodec.decode(GameCodec.encode(game));
+            Assertions.assertEquals(fen, decoded.toFen());
+            Assertions.assertEquals(game.getBoard(), decoded.getBoard());
+            Assertions.assertEquals(game.getLastMove(), decoded.getLastMove());
+            Assertions.assertEquals(game.getPositionKey(), decoded.getPositionKey());
+        }
+    }
+
+    @Test
+    @DisplayName("Games played out and finished survive the string form")
+    public void playedGame() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(ChessPosition.of(2, 6), ChessPosition.of(3, 6), null));
+        game.makeMove(new ChessMove(ChessPosition.of(7, 5), ChessPosition.of(5, 5), null));
+        game.makeMove(new ChessMove(ChessPosition.of(2, 7), ChessPosition.of(4, 7), null));
+        game.makeMove(new ChessMove(ChessPosition.of(8, 4), ChessPosition.of(4, 8), null));
+        Assertions.assertTrue(game.isInCheckmate(ChessGame.TeamColor.WHITE));
+
+        ChessGame decoded = GameCodec.decodeFromString(GameCodec.encodeToString(game));
+        Assertions.assertEquals(game.toFen(), decoded.toFen());
+        Assertions.assertEquals(game.getLastMove(), decoded.getLastMove());
+        Assertions.assertTrue(decoded.isGameOver());
+    }
+
+    @Test
+    @DisplayName("Encoded games fit in 40 bytes")
+    public void compact() {
+        ChessGame game = Fen.parse("rnbqkbnr/pp1ppppp/8/2p5/4P3/8/PPPP1PPP/RNBQKBNR w KQkq c6 0 2");
+        Assertions.assertTrue(GameCodec.encode(game).length <= 40);
+        Assertions.assertTrue(GameCodec.encode(new ChessGame()).length <= 40);
+    }
+
+    @Test
+    @DisplayName("Games stored as JSON before the binary format still load")
+    public void jsonFallback() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+        ChessGame decoded = GameCodec.decodeFromString(new Gson().toJson(game));
+        Assertions.assertEquals(game.getBoard(), decoded.getBoard());
+        Assertions.assertEquals(game.getTeamTurn(), decoded.getTeamTurn());
+        Assertions.assertEquals(game.getLastMove(), decoded.getLastMove());
+    }
+
+    @Test
+    @DisplayName("Unknown versions and truncated data are rejected")
+    public void invalid() {
+        byte[] bytes = GameCodec.encode(new ChessGame());
+        byte[] truncated = new byte[bytes.length - 1];
+        System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+        bytes[0] = (byte) (GameCodec.VERSION + 1);
+        byte[] unknownVersion = bytes;
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(unknownVersion));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(truncated));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(new byte[0]));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> GameCodec.decodeFromString(Base64.getEncoder().encodeToString(new byte[]{1, 2, 3})));
+    }
+}
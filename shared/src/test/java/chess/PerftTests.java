@@ -0,0 +1,114 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Leaf node counts checked against the published perft results for each position, kept to depths that run in
+ * well under a second. Run chess.Perft for deeper searches.
+ */
+public class PerftTests {
+
+    @Test
+    @DisplayName("Starting position")
+    public void startingPosition() {
+        Perft perft = new Perft(new ChessGame());
+        Assertions.assertEquals(20, perft.count(1));
+        Assertions.assertEquals(400, perft.count(2));
+        Assertions.assertEquals(8902, perft.count(3));
+        Assertions.assertEquals(197281, perft.count(4));
+    }
+
+    @Test
+    @DisplayName("Kiwipete, castling, pins and en passant in the middlegame")
+    public void kiwipete() {
+        ChessGame game = Fen.parse("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        Assertions.assertEquals(48, new Perft(game).count(1));
+        Assertions.assertEquals(97862, new Perft(game).count(3));
+    }
+
+    @Test
+    @DisplayName("Rook endgame with en passant discovered checks")
+    public void enPassantEndgame() {
+        ChessGame game = Fen.parse("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1");
+        Assertions.assertEquals(43238, new Perft(game).count(4));
+    }
+
+    @Test
+    @DisplayName("Promotions and underpromotions with captures")
+    public void promotions() {
+        ChessGame game = Fen.parse("n1n5/PPPk4/8/8/8/8/4Kppp/5N1N b - - 0 1");
+        Assertions.assertEquals(182838, new Perft(game).count(4));
+    }
+
+    @Test
+    @DisplayName("Castling on both sides for both teams")
+    public void castling() {
+        ChessGame game = Fen.parse("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+        Assertions.assertEquals(26, new Perft(game).count(1));
+        Assertions.assertEquals(13744, new Perft(game).count(3));
+    }
+
+    @Test
+    @DisplayName("Promotion with check and a king that has lost castling through its position")
+    public void position5() {
+        ChessGame game = Fen.parse("rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8");
+        Assertions.assertEquals(62379, new Perft(game).count(3));
+    }
+
+    @Test
+    @DisplayName("En passant target square loaded from FEN, including captures that would expose the king")
+    public void enPassantFromFen() {
+        Assertions.assertEquals(824064, new Perft(Fen.parse("8/8/1k6/8/2pP4/8/5BK1/8 b - d3 0 1")).count(6));
+        Assertions.assertEquals(1440467, new Perft(Fen.parse("8/5k2/8/2Pp4/2B5/1K6/8/8 w - d6 0 1")).count(6));
+    }
+
+    @Test
+    @DisplayName("Castling rights loaded from FEN, lost to rook moves and captures or blocked by attacks")
+    public void castlingRightsFromFen() {
+        Assertions.assertEquals(1274206, new Perft(Fen.parse("r3k2r/1b4bq/8/8/8/8/7B/R3K2R w KQkq - 0 1")).count(4));
+        Assertions.assertEquals(1720476, new Perft(Fen.parse("r3k2r/8/3Q4/8/8/5q2/8/R3K2R b KQkq - 0 1")).count(4));
+        Assertions.assertEquals(661072, new Perft(Fen.parse("5k2/8/8/8/8/8/8/4K2R w K - 0 1")).count(6));
+    }
+
+    @Test
+    @DisplayName("Divide sums to the full count")
+    public void divide() {
+        ChessGame game = Fen.parse("r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10");
+        Map<ChessMove, Long> counts = new Perft(game).divide(3);
+        Assertions.assertEquals(46, counts.size());
+        Assertions.assertEquals(89890, counts.values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    @DisplayName("Counting leaves the game as it was")
+    public void gameRestored() throws CloneNotSupportedException {
+        ChessGame game = new ChessGame();
+        long key = game.getPositionKey();
+        ChessBoard board = game.getBoard().clone();
+        new Perft(game).count(3);
+        Assertions.assertEquals(key, game.getPositionKey());
+        Assertions.assertEquals(board, game.getBoard());
+        Assertions.assertEquals(ChessGame.TeamColor.WHITE, game.getTeamTurn());
+    }
+
+    @Test
+    @DisplayName("Parallel count matches sequential count and leaves the game untouched")
+    public void parallel() {
+        ChessGame game = Fen.parse("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        long key = game.getPositionKey();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ParallelPerft.Result result = new ParallelPerft(pool, 2).count(game, 3);
+            Assertions.assertEquals(97862, result.nodes());
+            Assertions.assertEquals(97862, result.threads().stream().mapToLong(ParallelPerft.ThreadStats::nodes).sum());
+        } finally {
+            pool.shutdown();
+        }
+        Assertions.assertEquals(key, game.getPositionKey());
+    }
+}
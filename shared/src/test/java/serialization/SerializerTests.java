@@ -0,0 +1,113 @@
+package serialization;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.Fen;
+import chess.InvalidMoveException;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import model.GameData;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import websocket.messages.LoadGameMessage;
+
+import java.util.Collections;
+
+public class SerializerTests {
+    private static final Gson REFLECTIVE = new Gson();
+    private static final Gson REFLECTIVE_WITH_NULLS = new GsonBuilder().serializeNulls().create();
+
+    @Test
+    @DisplayName("Adapters write the same JSON as reflection")
+    public void sameJson() throws InvalidMoveException {
+        for (ChessGame game : games()) {
+            Assertions.assertEquals(REFLECTIVE.toJson(game), Serializer.GSON.toJson(game));
+            Assertions.assertEquals(REFLECTIVE.toJson(game.getBoard()), Serializer.GSON.toJson(game.getBoard()));
+            Assertions.assertEquals(REFLECTIVE_WITH_NULLS.toJson(game),
+                    Serializer.builder().serializeNulls().create().toJson(game));
+
+            GameData data = new GameData(7, "white", null, "name", game);
+            Assertions.assertEquals(REFLECTIVE.toJson(data), Serializer.GSON.toJson(data));
+            Assertions.assertEquals(REFLECTIVE.toJson(new LoadGameMessage(data, "white")),
+                    new LoadGameMessage(data, "white").toString());
+        }
+    }
+
+    @Test
+    @DisplayName("Adapters read JSON written by reflection and by themselves")
+    public void roundTrip() throws InvalidMoveException {
+        for (ChessGame game : games()) {
+            for (String json : new String[]{REFLECTIVE.toJson(game), Serializer.GSON.toJson(game),
+                    REFLECTIVE_WITH_NULLS.toJson(game)}) {
+                ChessGame read = Serializer.GSON.fromJson(json, ChessGame.class);
+                Assertions.assertEquals(game.toFen(), read.toFen());
+                Assertions.assertEquals(game.getBoard(), read.getBoard());
+                Assertions.assertEquals(game.isGameOver(), read.isGameOver());
+                Assertions.assertEquals(REFLECTIVE.toJson(game), REFLECTIVE.toJson(read));
+            }
+
+            GameData data = new GameData(7, null, "black", "name", game);
+            GameData read = Serializer.GSON.fromJson(REFLECTIVE.toJson(data), GameData.class);
+            Assertions.assertEquals(REFLECTIVE.toJson(data), Serializer.GSON.toJson(read));
+        }
+    }
+
+    @Test
+    @DisplayName("A game encoded once gives the same message as serializing it for each recipient")
+    public void encodedLoadGame() throws InvalidMoveException {
+        for (ChessGame game : games()) {
+            GameData data = new GameData(7, "white", null, "name \"quoted\"", game);
+            LoadGameMessage.Encoded encoded = LoadGameMessage.encode(data);
+            for (String userName : new String[]{"white", "observer \u00e9\"", null}) {
+                Assertions.assertEquals(new LoadGameMessage(data, userName).toString(), encoded.forUser(userName));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Fields missing from the JSON keep a new game's values")
+    public void missingFields() {
+        ChessGame read = Serializer.GSON.fromJson("{\"team\":\"BLACK\"}", ChessGame.class);
+        ChessGame expected = new ChessGame();
+        expected.setTeamTurn(ChessGame.TeamColor.BLACK);
+        Assertions.assertEquals(expected.toFen(), read.toFen());
+    }
+
+    @Test
+    @DisplayName("A board with more than 8 rows or columns is rejected")
+    public void oversizedBoard() {
+        String row = "[null,null,null,null,null,null,null,null]";
+        String nineRows = "{\"squares\":[" + String.join(",", Collections.nCopies(9, row)) + "]}";
+        String nineColumns = "{\"squares\":[[null,null,null,null,null,null,null,null,"
+                + "{\"pieceColor\":\"WHITE\",\"type\":\"ROOK\"}]]}";
+        for (String json : new String[]{nineRows, nineColumns}) {
+            Assertions.assertThrows(JsonParseException.class,
+                    () -> Serializer.GSON.fromJson(json, ChessBoard.class));
+        }
+    }
+
+    private static ChessGame[] games() throws InvalidMoveException {
+        ChessGame promoted = Fen.parse("8/P5k1/8/8/8/8/8/4K3 w - - 0 1");
+        promoted.makeMove(new ChessMove(ChessPosition.of(7, 1), ChessPosition.of(8, 1), ChessPiece.PieceType.QUEEN));
+
+        ChessGame mated = new ChessGame();
+        mated.makeMove(new ChessMove(ChessPosition.of(2, 6), ChessPosition.of(3, 6), null));
+        mated.makeMove(new ChessMove(ChessPosition.of(7, 5), ChessPosition.of(5, 5), null));
+        mated.makeMove(new ChessMove(ChessPosition.of(2, 7), ChessPosition.of(4, 7), null));
+        mated.makeMove(new ChessMove(ChessPosition.of(8, 4), ChessPosition.of(4, 8), null));
+        mated.isInCheckmate(ChessGame.TeamColor.WHITE);
+
+        return new ChessGame[]{
+                new ChessGame(),
+                Fen.parse("rnbqkbnr/pp1ppppp/8/2p5/4P3/8/PPPP1PPP/RNBQKBNR w KQkq c6 0 2"),
+                Fen.parse("r3k2r/8/8/8/8/8/8/R3K2R b Kq - 12 40"),
+                promoted,
+                mated
+        };
+    }
+}